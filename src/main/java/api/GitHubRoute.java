@@ -0,0 +1,167 @@
+package api;
+
+import utils.Config;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GitHub REST routes used by the suite, with their path templates split into literal segments
+ * once at class load. {@link #expand} builds the path in a per-thread buffer and, when a thread
+ * repeats its previous arguments, returns the previous string. Each call still allocates its
+ * varargs array, and a new combination of arguments allocates the resulting string.
+ */
+public enum GitHubRoute {
+    PUBLIC_REPOSITORIES("/repositories"),
+    USER("/user"),
+    USER_REPOSITORIES("/user/repos"),
+    REPOSITORY("/repos/{owner}/{repo}"),
+    EVENTS("/repos/{owner}/{repo}/events"),
+    CONTRIBUTORS("/repos/{owner}/{repo}/contributors"),
+    STATS_CONTRIBUTORS("/repos/{owner}/{repo}/stats/contributors"),
+    STATS_COMMIT_ACTIVITY("/repos/{owner}/{repo}/stats/commit_activity"),
+    STATS_PARTICIPATION("/repos/{owner}/{repo}/stats/participation"),
+    AUTOMATED_SECURITY_FIXES("/repos/{owner}/{repo}/automated-security-fixes"),
+    BRANCHES("/repos/{owner}/{repo}/branches"),
+    BRANCH("/repos/{owner}/{repo}/branches/{branch}"),
+    COMMITS("/repos/{owner}/{repo}/commits"),
+    COMMIT("/repos/{owner}/{repo}/commits/{ref}"),
+    COMPARE("/repos/{owner}/{repo}/compare/{basehead}"),
+    CONTENTS("/repos/{owner}/{repo}/contents/{path}"),
+    GIT_COMMIT("/repos/{owner}/{repo}/git/commits/{sha}"),
+    GIT_TREE("/repos/{owner}/{repo}/git/trees/{sha}"),
+    GIT_BLOB("/repos/{owner}/{repo}/git/blobs/{sha}"),
+    GIT_COMMITS("/repos/{owner}/{repo}/git/commits"),
+    GIT_TREES("/repos/{owner}/{repo}/git/trees"),
+    GIT_BLOBS("/repos/{owner}/{repo}/git/blobs"),
+    GIT_BRANCH_REF("/repos/{owner}/{repo}/git/ref/heads/{branch}"),
+    GIT_BRANCH_REF_UPDATE("/repos/{owner}/{repo}/git/refs/heads/{branch}"),
+    HOOKS("/repos/{owner}/{repo}/hooks"),
+    HOOK("/repos/{owner}/{repo}/hooks/{hook_id}");
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String template;
+    private final String[] literals;
+    private final Pattern matcher;
+    private final ThreadLocal<LastExpansion> last;
+
+    GitHubRoute(String template) {
+        this.template = template;
+        List<String> parts = new ArrayList<>();
+        StringBuilder regex = new StringBuilder("^");
+        Matcher m = Placeholders.PATTERN.matcher(template);
+        int start = 0;
+        while (m.find()) {
+            parts.add(template.substring(start, m.start()));
+            regex.append(Pattern.quote(template.substring(start, m.start())));
+            // {path} may span several segments; every other placeholder is a single segment
+            regex.append("{path}".equals(m.group()) ? ".+" : "[^/]+");
+            start = m.end();
+        }
+        parts.add(template.substring(start));
+        regex.append(Pattern.quote(template.substring(start))).append('$');
+        this.literals = parts.toArray(new String[0]);
+        this.matcher = Pattern.compile(regex.toString());
+        int parameters = literals.length - 1;
+        this.last = ThreadLocal.withInitial(() -> new LastExpansion(parameters));
+    }
+
+    public String template() {
+        return template;
+    }
+
+    public int parameterCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Fills the placeholders in declaration order, e.g. {@code BRANCH.expand(owner, repo, "develop")}.
+     */
+    public String expand(String... args) {
+        if (args.length != parameterCount()) {
+            throw new IllegalArgumentException(name() + " takes " + parameterCount() + " arguments, got " + args.length);
+        }
+        LastExpansion cached = last.get();
+        if (cached.matches(args)) {
+            return cached.path;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        for (int i = 0; i < args.length; i++) {
+            buffer.append(literals[i]).append(args[i]);
+        }
+        buffer.append(literals[args.length]);
+        cached.remember(args, buffer.toString());
+        return cached.path;
+    }
+
+    /**
+     * Route whose template matches a concrete path (query string ignored), or null. The path of
+     * GITHUB_API_BASE_URI, such as GitHub Enterprise's {@code /api/v3}, is stripped first.
+     */
+    public static GitHubRoute match(String path) {
+        int query = path.indexOf('?');
+        String bare = query < 0 ? path : path.substring(0, query);
+        String basePath = BasePath.PATH;
+        if (!basePath.isEmpty() && bare.startsWith(basePath) && bare.startsWith("/", basePath.length())) {
+            bare = bare.substring(basePath.length());
+        }
+        for (GitHubRoute route : values()) {
+            if (route.matcher.matcher(bare).matches()) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // Path of the configured API root without a trailing slash, "" for https://api.github.com
+    private static final class BasePath {
+        static final String PATH = basePath(Config.getUpstreamBaseUri());
+
+        static String basePath(String baseUri) {
+            String path = URI.create(baseUri).getPath();
+            if (path == null) {
+                return "";
+            }
+            return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        }
+    }
+
+    // Enum constructors cannot read the enum's own static fields, so the pattern lives here
+    private static final class Placeholders {
+        static final Pattern PATTERN = Pattern.compile("\\{[^}]+}");
+    }
+
+    private static final class LastExpansion {
+        private final String[] args;
+        private int length = -1;
+        private String path;
+
+        LastExpansion(int parameters) {
+            this.args = new String[parameters];
+        }
+
+        boolean matches(String[] candidate) {
+            if (candidate.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!Objects.equals(args[i], candidate[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void remember(String[] values, String expanded) {
+            System.arraycopy(values, 0, args, 0, values.length);
+            length = values.length;
+            path = expanded;
+        }
+    }
+}
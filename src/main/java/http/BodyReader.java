@@ -0,0 +1,15 @@
+package http;
+
+import io.restassured.http.Headers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes a response body as a decoded stream, e.g. feeding it straight into a Jackson parser.
+ */
+@FunctionalInterface
+public interface BodyReader<T> {
+
+    T read(int statusCode, Headers headers, InputStream body) throws IOException;
+}
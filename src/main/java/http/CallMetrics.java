@@ -0,0 +1,111 @@
+package http;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts HTTP calls and response bytes, both suite-wide and per scope. A listener opens a scope
+ * on the test thread with {@link #begin()}; transports capture {@link #current()} when a call
+ * starts, so async completions on other threads still land in the right test. Each scope also
+ * keeps the distinct endpoints it called, which test impact selection uses as its request trace,
+ * and how many times response bodies were parsed on its thread.
+ */
+public final class CallMetrics {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    private static final Scope TOTAL = new Scope();
+    private static final AtomicLong FIRST_REQUEST_UPTIME = new AtomicLong(-1);
+
+    private CallMetrics() {
+    }
+
+    public static Scope begin() {
+        Scope scope = new Scope();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    public static Scope end() {
+        Scope scope = CURRENT.get();
+        CURRENT.remove();
+        return scope;
+    }
+
+    public static Scope total() {
+        return TOTAL;
+    }
+
+    public static void record(Scope scope, int statusCode, long responseBytes) {
+        TOTAL.add(statusCode, responseBytes);
+        if (scope != null) {
+            scope.add(statusCode, responseBytes);
+        }
+    }
+
+    /**
+     * Counts one parse of a response body of {@code bodyBytes} in the current scope and the total.
+     */
+    public static void recordParse(long bodyBytes) {
+        TOTAL.addParse(bodyBytes);
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.addParse(bodyBytes);
+        }
+    }
+
+    /**
+     * Notes that the scope called {@code method} on {@code url}; ids and SHAs in the path are collapsed.
+     * The first call of the JVM also fixes {@link #firstRequestUptimeMillis()}.
+     */
+    public static void trace(Scope scope, String method, String url) {
+        if (FIRST_REQUEST_UPTIME.get() < 0) {
+            FIRST_REQUEST_UPTIME.compareAndSet(-1, ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+        if (scope != null) {
+            scope.endpoints.add(method + " " + CompressionMetrics.endpointKey(url));
+        }
+    }
+
+    /**
+     * Milliseconds from JVM start to the first API call, or -1 before any call.
+     */
+    public static long firstRequestUptimeMillis() {
+        return FIRST_REQUEST_UPTIME.get();
+    }
+
+    public static final class Scope {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder parses = new LongAdder();
+        private final LongAdder parsedBytes = new LongAdder();
+        private final Set<String> endpoints = ConcurrentHashMap.newKeySet();
+
+        void add(int statusCode, long responseBytes) {
+            calls.increment();
+            bytes.add(responseBytes);
+            if (statusCode >= 400 || statusCode <= 0) {
+                errors.increment();
+            }
+        }
+
+        void addParse(long bodyBytes) {
+            parses.increment();
+            parsedBytes.add(bodyBytes);
+        }
+
+        public long calls() { return calls.sum(); }
+        public long bytes() { return bytes.sum(); }
+        public long errors() { return errors.sum(); }
+        public long parses() { return parses.sum(); }
+        public long parsedBytes() { return parsedBytes.sum(); }
+        public Set<String> endpoints() { return Collections.unmodifiableSet(endpoints); }
+    }
+}
@@ -0,0 +1,35 @@
+package http;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Records every RestAssured call, including ad-hoc given() calls in tests, in {@link CallMetrics}
+ * and as an {@link HttpCallEvent}.
+ */
+public class CallMetricsFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        CallMetrics.Scope scope = CallMetrics.current();
+        CallMetrics.trace(scope, requestSpec.getMethod(), requestSpec.getURI());
+        HttpCallEvent event = HttpCallEvent.start(requestSpec.getMethod(), requestSpec.getURI());
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            int bytes = response.asByteArray().length;
+            CallMetrics.record(scope, response.statusCode(), bytes);
+            event.finish(response.statusCode(), bytes);
+            return response;
+        } catch (Exception e) {
+            // RestAssured rethrows connection failures such as UnknownHostException undeclared
+            CallMetrics.record(scope, 0, 0);
+            event.finish(0, 0);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package http;
+
+import java.util.Arrays;
+
+/**
+ * Closed/open/half-open breaker over a rolling window of recent outcomes: the last
+ * {@code windowSize} calls, ignoring those older than {@code windowMillis}. It opens once the window
+ * holds at least {@code minCalls} calls and the failed share reaches {@code failureRate}. After
+ * {@code openMillis} one probe is let through: success closes the breaker, failure re-opens it.
+ * Each admitted call carries a {@link Permit} stamped with the breaker's generation, which changes
+ * on every state change; results of calls admitted before the last change are ignored, so a slow
+ * call started before the breaker opened cannot close or re-open it in place of the probe.
+ */
+public final class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minCalls;
+    private final double failureRate;
+    private final long windowMillis;
+    private final long openMillis;
+    private final long[] times;
+    private final boolean[] failures;
+    private int next;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long generation;
+    private long rejected;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRate, long windowMillis, long openMillis) {
+        this.name = name;
+        this.minCalls = minCalls;
+        this.failureRate = failureRate;
+        this.windowMillis = windowMillis;
+        this.openMillis = openMillis;
+        this.times = new long[windowSize];
+        this.failures = new boolean[windowSize];
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    /**
+     * A permit for a call that may go out now, or null; an open breaker whose cool-down has passed
+     * admits one probe.
+     */
+    public synchronized Permit tryAcquire() {
+        switch (state) {
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    rejected++;
+                    return null;
+                }
+                state = State.HALF_OPEN;
+                generation++;
+                probeInFlight = true;
+                return new Permit(generation, true);
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    rejected++;
+                    return null;
+                }
+                probeInFlight = true;
+                return new Permit(generation, true);
+            default:
+                return new Permit(generation, false);
+        }
+    }
+
+    private synchronized void record(Permit permit, boolean failed) {
+        if (permit.generation != generation) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (failed) {
+                open(now);
+            } else {
+                state = State.CLOSED;
+                generation++;
+                Arrays.fill(times, 0);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        times[next] = now;
+        failures[next] = failed;
+        next = (next + 1) % times.length;
+        int calls = 0;
+        int failedCalls = 0;
+        for (int i = 0; i < times.length; i++) {
+            if (times[i] != 0 && now - times[i] <= windowMillis) {
+                calls++;
+                if (failures[i]) {
+                    failedCalls++;
+                }
+            }
+        }
+        if (calls >= minCalls && failedCalls >= failureRate * calls) {
+            open(now);
+        }
+    }
+
+    // a probe that never went out lets the next call probe instead
+    private synchronized void abandon(Permit permit) {
+        if (permit.probe && permit.generation == generation && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        generation++;
+        openedAt = now;
+        Arrays.fill(times, 0);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return name + " " + state + (rejected > 0 ? " (" + rejected + " calls rejected)" : "");
+    }
+
+    /**
+     * One admitted call. Report its outcome once with {@link #record}, or {@link #abandon} it when
+     * the call never went out.
+     */
+    public final class Permit {
+        private final long generation;
+        private final boolean probe;
+
+        private Permit(long generation, boolean probe) {
+            this.generation = generation;
+            this.probe = probe;
+        }
+
+        public boolean isProbe() {
+            return probe;
+        }
+
+        public void record(boolean failed) {
+            CircuitBreaker.this.record(this, failed);
+        }
+
+        public void abandon() {
+            CircuitBreaker.this.abandon(this);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package http;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+
+/**
+ * Fails RestAssured calls fast with {@link CircuitOpenException} while their endpoint group's
+ * breaker is open, and feeds every response and I/O failure into {@link CircuitBreakers}. A call
+ * that fails before it reaches the wire, e.g. while waiting for a concurrency slot or a token,
+ * abandons its permit instead, so local waits never open a breaker.
+ */
+public class CircuitBreakerFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        CircuitBreaker.Permit permit = CircuitBreakers.acquire(requestSpec.getURI());
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (Exception e) {
+            if (isIoFailure(e)) {
+                permit.record(true);
+            } else {
+                permit.abandon();
+            }
+            throw e;
+        } catch (Error e) {
+            permit.abandon();
+            throw e;
+        }
+        permit.record(CircuitBreakers.isFailure(response.statusCode()));
+        return response;
+    }
+
+    // RestAssured rethrows connect and read failures unwrapped or as the cause of its own exceptions
+    private static boolean isIoFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package http;
+
+import api.GitHubRoute;
+import utils.Config;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per endpoint group, the {@link GitHubRoute} a URL matches (or its
+ * collapsed path when it matches none). A 5xx response or a call without a response counts as a
+ * failure; 4xx responses are the caller's problem and count as successes.
+ * The last rejection on the current thread is kept so test listeners can tell a fail-fast failure
+ * from a real one; see {@link #lastRejection()}.
+ */
+public final class CircuitBreakers {
+    private static final int WINDOW_SIZE = 20;
+    private static final int MIN_CALLS = 5;
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<CircuitOpenException> LAST_REJECTION = new ThreadLocal<>();
+
+    private CircuitBreakers() {
+    }
+
+    public static CircuitBreaker forUrl(String url) {
+        return BREAKERS.computeIfAbsent(group(url), group -> new CircuitBreaker(group, WINDOW_SIZE, MIN_CALLS,
+                Config.getCircuitFailureRate(), WINDOW_MILLIS, Config.getCircuitOpenSeconds() * 1000));
+    }
+
+    /**
+     * Admits the call or throws {@link CircuitOpenException}, remembering it for the current thread.
+     */
+    public static CircuitBreaker.Permit acquire(String url) {
+        CircuitBreaker breaker = forUrl(url);
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (permit == null) {
+            CircuitOpenException rejection = new CircuitOpenException(breaker.name(), url);
+            LAST_REJECTION.set(rejection);
+            throw rejection;
+        }
+        return permit;
+    }
+
+    public static boolean isFailure(int statusCode) {
+        return statusCode <= 0 || statusCode >= 500;
+    }
+
+    public static CircuitOpenException lastRejection() {
+        return LAST_REJECTION.get();
+    }
+
+    public static void clearRejection() {
+        LAST_REJECTION.remove();
+    }
+
+    public static String summary() {
+        StringJoiner out = new StringJoiner(", ", "Circuit breakers: ", "");
+        new TreeMap<>(BREAKERS).values().forEach(breaker -> out.add(breaker.toString()));
+        return out.toString();
+    }
+
+    static String group(String url) {
+        String path;
+        try {
+            path = URI.create(url).getRawPath();
+        } catch (IllegalArgumentException e) {
+            path = url;
+        }
+        GitHubRoute route = path == null ? null : GitHubRoute.match(path);
+        return route != null ? route.name() : CompressionMetrics.endpointKey(url);
+    }
+}
@@ -0,0 +1,19 @@
+package http;
+
+/**
+ * Thrown instead of sending a request while the breaker for its endpoint group is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String group;
+
+    public CircuitOpenException(String group, String url) {
+        super("Circuit for " + group + " is open, not calling " + url);
+        this.group = group;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+}
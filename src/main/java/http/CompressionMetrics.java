@@ -0,0 +1,74 @@
+package http;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-endpoint totals of bytes received on the wire versus bytes after decoding.
+ */
+public final class CompressionMetrics {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(?:[0-9a-f]{40}|\\d+)(?=/|$)");
+    private static final Map<String, Totals> TOTALS = new ConcurrentHashMap<>();
+
+    private CompressionMetrics() {
+    }
+
+    public static void recordWire(String url, long bytes) {
+        totals(url).wire.add(bytes);
+    }
+
+    public static void recordDecoded(String url, long bytes) {
+        Totals totals = totals(url);
+        totals.decoded.add(bytes);
+        totals.responses.increment();
+    }
+
+    /**
+     * Snapshot keyed by endpoint: {responses, wire bytes, decoded bytes}.
+     */
+    public static Map<String, long[]> snapshot() {
+        Map<String, long[]> snapshot = new TreeMap<>();
+        TOTALS.forEach((endpoint, totals) -> snapshot.put(endpoint,
+                new long[] {totals.responses.sum(), totals.wire.sum(), totals.decoded.sum()}));
+        return snapshot;
+    }
+
+    public static String summary() {
+        StringBuilder out = new StringBuilder("Endpoint compression (responses, wire bytes, decoded bytes, ratio):");
+        snapshot().forEach((endpoint, v) -> out.append(String.format("%n  %s  %d  %d  %d  %.2f",
+                endpoint, v[0], v[1], v[2], v[1] == 0 ? 1.0 : (double) v[2] / v[1])));
+        return out.toString();
+    }
+
+    public static void reset() {
+        TOTALS.clear();
+    }
+
+    /**
+     * Endpoint key for a URL: the path without query string, with numeric ids and SHAs collapsed.
+     */
+    static String endpointKey(String url) {
+        String path;
+        try {
+            path = URI.create(url).getRawPath();
+        } catch (IllegalArgumentException e) {
+            int query = url.indexOf('?');
+            path = query < 0 ? url : url.substring(0, query);
+        }
+        return ID_SEGMENT.matcher(path == null ? "" : path).replaceAll("/{id}");
+    }
+
+    private static Totals totals(String url) {
+        return TOTALS.computeIfAbsent(endpointKey(url), key -> new Totals());
+    }
+
+    private static final class Totals {
+        final LongAdder responses = new LongAdder();
+        final LongAdder wire = new LongAdder();
+        final LongAdder decoded = new LongAdder();
+    }
+}
@@ -0,0 +1,73 @@
+package http;
+
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.SystemDefaultHttpClient;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Hooks {@link CompressionMetrics} into RestAssured. An Apache HttpClient interceptor registered
+ * ahead of RestAssured's own gzip/deflate decoder counts wire bytes, and a filter counts the
+ * decoded body. RestAssured only decodes gzip and deflate, so only those are negotiated here.
+ */
+public final class CompressionTracking implements Filter {
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        CompressionMetrics.recordDecoded(requestSpec.getURI(), response.asByteArray().length);
+        return response;
+    }
+
+    public static RestAssuredConfig configure(RestAssuredConfig config) {
+        return config
+                .decoderConfig(DecoderConfig.decoderConfig()
+                        .contentDecoders(DecoderConfig.ContentDecoder.GZIP, DecoderConfig.ContentDecoder.DEFLATE))
+                .httpClient(config.getHttpClientConfig().httpClientFactory(CompressionTracking::newHttpClient));
+    }
+
+    /**
+     * RestAssured's own default client (it honours the http.proxyHost/https.proxyHost and other
+     * system properties) with the wire counter added. RestAssured 5 needs an AbstractHttpClient, so
+     * the non-deprecated HttpClientBuilder clients cannot be used here.
+     */
+    @SuppressWarnings("deprecation")
+    private static SystemDefaultHttpClient newHttpClient() {
+        SystemDefaultHttpClient client = new SystemDefaultHttpClient();
+        client.addResponseInterceptor(wireCounter(), 0);
+        return client;
+    }
+
+    private static HttpResponseInterceptor wireCounter() {
+        return (response, context) -> {
+            HttpEntity entity = response.getEntity();
+            HttpRequest request = (HttpRequest) context.getAttribute(HttpCoreContext.HTTP_REQUEST);
+            if (entity == null || request == null) {
+                return;
+            }
+            String uri = request.getRequestLine().getUri();
+            response.setEntity(new HttpEntityWrapper(entity) {
+                @Override
+                public InputStream getContent() throws IOException {
+                    return new CountingInputStream(super.getContent(), n -> CompressionMetrics.recordWire(uri, n));
+                }
+            });
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package http;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Holds a {@link ConcurrencyLimiter} slot for the duration of every RestAssured call, including
+ * ad-hoc given() calls in tests and the calls made by {@link RestAssuredTransport}.
+ */
+public class ConcurrencyLimitFilter implements Filter {
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter() {
+        this(ConcurrencyLimiter.shared());
+    }
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = limiter.acquire();
+        int status = 0;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            status = response.statusCode();
+            return response;
+        } finally {
+            limiter.release(start, status);
+        }
+    }
+}
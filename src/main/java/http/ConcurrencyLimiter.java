@@ -0,0 +1,230 @@
+package http;
+
+import utils.Config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive cap on in-flight requests. Successful calls adjust the limit Vegas-style: the estimated
+ * queue, {@code limit * (1 - minRtt / rtt)}, grows the limit by one while it is below {@code alpha}
+ * and at least half the limit is in use, and shrinks it by one above {@code beta}; a mostly idle
+ * limit does not creep up to the maximum. A throttled or failed call (429, 5xx, no response)
+ * halves the limit, AIMD-style. The minimum RTT slowly drifts up so a shifted baseline is relearned.
+ * One {@link #shared()} instance covers RestAssured (through {@link ConcurrencyLimitFilter}) and
+ * {@link Http2Transport}. Slots are handed out first come, first served, whether the caller blocks
+ * in {@link #acquire()} or chains on {@link #acquireAsync()}.
+ */
+public final class ConcurrencyLimiter {
+    private static final ConcurrencyLimiter SHARED = new ConcurrencyLimiter(
+            Config.getConcurrencyInitialLimit(), 1, Config.getConcurrencyMaxLimit());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<CompletableFuture<Long>> waiters = new ArrayDeque<>();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double alpha = 3;
+    private final double beta = 6;
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int peakLimit;
+    private int lowestLimit;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.peakLimit = (int) limit;
+        this.lowestLimit = (int) limit;
+    }
+
+    public static ConcurrencyLimiter shared() {
+        return SHARED;
+    }
+
+    /**
+     * Waits for a free slot, but not past the current {@link Deadline}, and returns the start time
+     * to hand back to {@link #release}.
+     */
+    public long acquire() {
+        CompletableFuture<Long> slot = acquireAsync();
+        Deadline deadline = Deadline.current();
+        try {
+            return deadline == null ? slot.get() : slot.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(slot);
+            throw deadline.exceeded("a concurrency slot (" + inFlight() + " in flight, limit " + limit() + ")", null);
+        } catch (InterruptedException e) {
+            abandon(slot);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a concurrency slot", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Concurrency slot failed", e.getCause());
+        }
+    }
+
+    /**
+     * A slot without blocking: the future completes with the start time once one frees up, on the
+     * thread that frees it. Cancelling the future before then gives up the place in the queue.
+     */
+    public CompletableFuture<Long> acquireAsync() {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(System.nanoTime());
+            }
+            CompletableFuture<Long> slot = new CompletableFuture<>();
+            waiters.add(slot);
+            // cancelled (for example by Deadline.bind) while queued: leave the queue so later callers are not held up
+            slot.whenComplete((start, error) -> {
+                if (error != null) {
+                    forget(slot);
+                }
+            });
+            return slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot taken at {@code startNanos} and feeds the outcome into the limit;
+     * {@code statusCode <= 0} means no response arrived.
+     */
+    public void release(long startNanos, int statusCode) {
+        long rtt = Math.max(1, System.nanoTime() - startNanos);
+        List<CompletableFuture<Long>> granted;
+        lock.lock();
+        try {
+            int used = inFlight--;
+            if (statusCode <= 0 || statusCode == 429 || statusCode >= 500) {
+                limit = Math.max(minLimit, limit / 2);
+            } else {
+                minRttNanos = minRttNanos == Long.MAX_VALUE ? rtt : Math.min(minRttNanos + minRttNanos / 100, rtt);
+                double queue = limit * (1 - (double) minRttNanos / rtt);
+                if (queue < alpha && used >= limit / 2) {
+                    limit = Math.min(maxLimit, limit + 1);
+                } else if (queue > beta) {
+                    limit = Math.max(minLimit, limit - 1);
+                }
+            }
+            peakLimit = Math.max(peakLimit, (int) limit);
+            lowestLimit = Math.min(lowestLimit, (int) limit);
+            granted = grant();
+        } finally {
+            lock.unlock();
+        }
+        handOut(granted);
+    }
+
+    /**
+     * Gives up a slot from {@link #acquireAsync()} that will not be used; a pending one leaves the queue.
+     */
+    public void abandon(CompletableFuture<Long> slot) {
+        if (!slot.cancel(false) && !slot.isCompletedExceptionally()) {
+            giveBack();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // takes slots for queued waiters while there is room; completed outside the lock by handOut
+    private List<CompletableFuture<Long>> grant() {
+        List<CompletableFuture<Long>> granted = new ArrayList<>();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            CompletableFuture<Long> next = waiters.poll();
+            if (!next.isDone()) {
+                inFlight++;
+                granted.add(next);
+            }
+        }
+        return granted;
+    }
+
+    private void handOut(List<CompletableFuture<Long>> granted) {
+        for (CompletableFuture<Long> slot : granted) {
+            // cancelled between grant and here, so the slot goes to the next waiter
+            if (!slot.complete(System.nanoTime())) {
+                giveBack();
+            }
+        }
+    }
+
+    private void forget(CompletableFuture<Long> slot) {
+        List<CompletableFuture<Long>> granted;
+        lock.lock();
+        try {
+            waiters.remove(slot);
+            granted = grant();
+        } finally {
+            lock.unlock();
+        }
+        handOut(granted);
+    }
+
+    // frees a slot that carried no call, without feeding the limit
+    private void giveBack() {
+        List<CompletableFuture<Long>> granted;
+        lock.lock();
+        try {
+            inFlight--;
+            granted = grant();
+        } finally {
+            lock.unlock();
+        }
+        handOut(granted);
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long minRttMillis() {
+        lock.lock();
+        try {
+            return minRttNanos == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(minRttNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String summary() {
+        lock.lock();
+        try {
+            return "Concurrency limit: " + (int) limit + " (range " + lowestLimit + ".." + peakLimit
+                    + ", in flight " + inFlight + ", waiting " + waiters.size() + ", min RTT " + minRttMillis() + " ms)";
+        } finally {
+            lock.unlock();
+        }
+    }
+}
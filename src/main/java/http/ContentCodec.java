@@ -0,0 +1,98 @@
+package http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.StringJoiner;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-Encoding values the http2 transport can negotiate. zstd comes from the optional
+ * com.github.luben:zstd-jni dependency; gzip and deflate come with the JDK. Brotli is offered only
+ * when org.brotli:dec is added to the classpath, which the build does not do yet. Each codec is
+ * offered only when its decoder loads.
+ */
+public enum ContentCodec {
+    ZSTD("zstd", "com.github.luben.zstd.ZstdInputStream"),
+    BROTLI("br", "org.brotli.dec.BrotliInputStream"),
+    GZIP("gzip", null),
+    DEFLATE("deflate", null);
+
+    private final String token;
+    private final String decoderClass;
+    private final boolean available;
+
+    ContentCodec(String token, String decoderClass) {
+        this.token = token;
+        this.decoderClass = decoderClass;
+        this.available = decoderClass == null || isPresent(decoderClass);
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Wraps the raw (still encoded) stream so that reads return decoded bytes as they arrive.
+     */
+    public InputStream decode(InputStream encoded) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(encoded, 8192);
+            case DEFLATE:
+                return new InflaterInputStream(encoded, new Inflater(), 8192);
+            default:
+                try {
+                    return (InputStream) Class.forName(decoderClass)
+                            .getConstructor(InputStream.class)
+                            .newInstance(encoded);
+                } catch (ReflectiveOperationException e) {
+                    throw new IOException("No decoder available for Content-Encoding " + token, e);
+                }
+        }
+    }
+
+    /**
+     * Accept-Encoding header value listing every codec usable in this JVM, best ratio first.
+     */
+    public static String acceptEncoding() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (ContentCodec codec : values()) {
+            if (codec.available) {
+                joiner.add(codec.token);
+            }
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Codec for a Content-Encoding header value, or null for identity/absent/unknown encodings.
+     */
+    public static ContentCodec forEncoding(String contentEncoding) {
+        if (contentEncoding == null) {
+            return null;
+        }
+        String trimmed = contentEncoding.trim();
+        for (ContentCodec codec : values()) {
+            if (codec.token.equalsIgnoreCase(trimmed) || ("x-" + codec.token).equalsIgnoreCase(trimmed)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    // initializes the class, so a decoder whose native library does not load is not offered
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, true, ContentCodec.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package http;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Swaps the Authorization header of RestAssured calls made with a pool token for the token
+ * {@link CredentialPool} schedules next, and reports the rate-limit headers back to the pool.
+ */
+public class CredentialFilter implements Filter {
+    private final CredentialPool pool;
+
+    public CredentialFilter() {
+        this(CredentialPool.shared());
+    }
+
+    public CredentialFilter(CredentialPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        if (!pool.isPooled() || !pool.owns(requestSpec.getHeaders().getValue("Authorization"))) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        CredentialPool.Credential credential = pool.acquire();
+        requestSpec.replaceHeader("Authorization", "Bearer " + credential.token());
+        Response response = null;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            Response received = response;
+            pool.release(credential, received == null ? 0 : received.statusCode(),
+                    name -> received == null ? null : received.header(name));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package http;
+
+import utils.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Tokens from GITHUB_TOKENS (plus GITHUB_TOKEN) handed out per request. {@link #acquire()} picks the
+ * token with the most quota left, by its last {@code X-RateLimit-Remaining} minus calls in flight,
+ * and the least used one on ties. A token is benched until {@code X-RateLimit-Reset} when its
+ * primary quota runs out, for {@code Retry-After} after a secondary-limit 403/429, and for a minute
+ * after a bare 429.
+ * Only requests authorized with one of the pool's own tokens are rotated; explicit other tokens pass through.
+ */
+public final class CredentialPool {
+    private static final long SECONDARY_LIMIT_BACKOFF_MILLIS = 60_000;
+    private static volatile CredentialPool shared;
+
+    private final List<Credential> credentials;
+    private final String scopeId;
+
+    public CredentialPool(List<String> tokens) {
+        List<Credential> list = new ArrayList<>();
+        for (String token : tokens) {
+            list.add(new Credential(token));
+        }
+        this.credentials = Collections.unmodifiableList(list);
+        this.scopeId = digest(new TreeSet<>(tokens));
+    }
+
+    public static CredentialPool shared() {
+        CredentialPool pool = shared;
+        if (pool == null) {
+            synchronized (CredentialPool.class) {
+                if (shared == null) {
+                    shared = new CredentialPool(Config.getAuthTokens());
+                }
+                pool = shared;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * True when there is more than one token to rotate between.
+     */
+    public boolean isPooled() {
+        return credentials.size() > 1;
+    }
+
+    /**
+     * Whether an Authorization header value ("Bearer x" or "token x") carries one of the pool's tokens.
+     */
+    public boolean owns(String authorization) {
+        if (authorization == null) {
+            return false;
+        }
+        String token = authorization.substring(authorization.indexOf(' ') + 1);
+        for (Credential credential : credentials) {
+            if (credential.token.equals(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifies the set of tokens, so caches of authorized responses can be kept per credential scope.
+     */
+    public String scopeId() {
+        return scopeId;
+    }
+
+    /**
+     * Best available token; waits while every token is benched, but not past the current {@link Deadline}.
+     */
+    public synchronized Credential acquire() {
+        while (true) {
+            long now = System.currentTimeMillis();
+            Credential best = null;
+            long nextFree = Long.MAX_VALUE;
+            for (Credential credential : credentials) {
+                if (credential.blockedUntil != 0 && credential.blockedUntil <= now) {
+                    // back from the bench: its quota is unknown until the next response
+                    credential.blockedUntil = 0;
+                    credential.remaining = -1;
+                }
+                if (credential.blockedUntil > now) {
+                    nextFree = Math.min(nextFree, credential.blockedUntil);
+                } else if (best == null || credential.compareTo(best) < 0) {
+                    best = credential;
+                }
+            }
+            if (best != null) {
+                best.inFlight++;
+                best.uses++;
+                return best;
+            }
+            long wait = nextFree - now;
+            Deadline deadline = Deadline.current();
+            if (deadline != null && deadline.remainingMillis() < wait) {
+                throw deadline.exceeded("any token (all rate limited for another " + wait + " ms)", null);
+            }
+            try {
+                wait(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a GitHub token", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the token and updates its quota from the response headers ({@code statusCode <= 0}
+     * and a null-returning {@code header} mean no response).
+     */
+    public synchronized void release(Credential credential, int statusCode, Function<String, String> header) {
+        credential.inFlight--;
+        try {
+            long remaining = number(header.apply("X-RateLimit-Remaining"));
+            long reset = number(header.apply("X-RateLimit-Reset"));
+            String retryAfter = header.apply("Retry-After");
+            if (remaining >= 0) {
+                credential.remaining = (int) Math.min(Integer.MAX_VALUE, remaining);
+            }
+            if ((statusCode == 403 || statusCode == 429) && retryAfter != null) {
+                long seconds = number(retryAfter);
+                credential.blockedUntil = System.currentTimeMillis()
+                        + (seconds >= 0 ? seconds * 1000 : SECONDARY_LIMIT_BACKOFF_MILLIS);
+            } else if (credential.remaining == 0 && reset >= 0) {
+                credential.blockedUntil = reset * 1000;
+            } else if (statusCode == 429) {
+                credential.blockedUntil = System.currentTimeMillis() + SECONDARY_LIMIT_BACKOFF_MILLIS;
+            }
+            // a plain 403 is a permission problem, not a limit, and leaves the token in rotation
+        } finally {
+            notifyAll();
+        }
+    }
+
+    /**
+     * A non-negative numeric header value, or -1 when it is absent or malformed, so a bad header
+     * never keeps a token from being returned (an HTTP-date Retry-After gets the default backoff).
+     */
+    private static long number(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            long number = Long.parseLong(value.trim());
+            return number < 0 ? -1 : number;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public synchronized String summary() {
+        StringJoiner out = new StringJoiner(", ", "Tokens (uses/remaining): ", "");
+        for (int i = 0; i < credentials.size(); i++) {
+            Credential credential = credentials.get(i);
+            out.add("#" + (i + 1) + " " + credential.uses + "/" + (credential.remaining < 0 ? "?" : credential.remaining)
+                    + (credential.blockedUntil > System.currentTimeMillis() ? " (benched)" : ""));
+        }
+        return out.toString();
+    }
+
+    private static String digest(Iterable<String> tokens) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String token : tokens) {
+                sha.update(token.getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder();
+            byte[] hash = sha.digest();
+            for (int i = 0; i < 6; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Credential implements Comparable<Credential> {
+        private final String token;
+        private int remaining = -1;
+        private long blockedUntil;
+        private int inFlight;
+        private long uses;
+
+        Credential(String token) {
+            this.token = token;
+        }
+
+        public String token() {
+            return token;
+        }
+
+        // unknown quota sorts first so every token gets probed once
+        private long headroom() {
+            return (remaining < 0 ? Integer.MAX_VALUE : remaining) - inFlight;
+        }
+
+        @Override
+        public int compareTo(Credential other) {
+            int byHeadroom = Long.compare(other.headroom(), headroom());
+            return byHeadroom != 0 ? byHeadroom : Long.compare(uses, other.uses);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package http;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Total time budget for one test, shared by every attempt of it. A listener installs it on the test
+ * thread with {@link #set}; transports read {@link #current()} to shorten their timeouts and
+ * {@link #bind} async calls so they are cancelled when the budget runs out.
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "test-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final long budgetMillis;
+    private final long expiresAtNanos;
+    private final Set<CompletableFuture<?>> outstanding = ConcurrentHashMap.newKeySet();
+    private final ScheduledFuture<?> expiry;
+    private volatile boolean exceeded;
+
+    private Deadline(String name, Duration budget) {
+        this.name = name;
+        this.budgetMillis = budget.toMillis();
+        this.expiresAtNanos = System.nanoTime() + budget.toNanos();
+        this.expiry = TIMER.schedule(this::expire, budget.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public static Deadline start(String name, Duration budget) {
+        return new Deadline(name, budget);
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * True once the deadline expired or a call was refused or cut short by it.
+     */
+    public boolean wasExceeded() {
+        return exceeded || isExpired();
+    }
+
+    /**
+     * Throws {@link DeadlineExceededException} if no time is left for {@code call}.
+     */
+    public void check(String call) {
+        if (isExpired()) {
+            exceeded = true;
+            throw exceeded(call, null);
+        }
+    }
+
+    public DeadlineExceededException exceeded(String call, Throwable cause) {
+        exceeded = true;
+        return new DeadlineExceededException("Deadline of " + budgetMillis + " ms for " + name
+                + " exceeded" + (call == null ? "" : " calling " + call), cause);
+    }
+
+    /**
+     * Tracks {@code future} until it completes and cancels it if the deadline expires first, which
+     * also aborts the exchange where the client supports it; callers map the cancellation with
+     * {@link #exceeded}.
+     */
+    public <T> CompletableFuture<T> bind(CompletableFuture<T> future, String call) {
+        if (isExpired()) {
+            future.completeExceptionally(exceeded(call, null));
+            return future;
+        }
+        outstanding.add(future);
+        future.whenComplete((result, error) -> outstanding.remove(future));
+        return future;
+    }
+
+    /**
+     * Stops the timer and cancels whatever is still outstanding, for when the test is done.
+     */
+    public void close() {
+        expiry.cancel(false);
+        outstanding.forEach(future -> future.cancel(true));
+    }
+
+    private void expire() {
+        if (!outstanding.isEmpty()) {
+            exceeded = true;
+        }
+        outstanding.forEach(future -> future.cancel(true));
+    }
+}
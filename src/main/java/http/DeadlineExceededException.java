@@ -0,0 +1,17 @@
+package http;
+
+/**
+ * The {@link Deadline} of the current test ran out before or during an HTTP call. Deliberately not
+ * an {@link AssertionError}, so reports show it as broken rather than as a failed check.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,54 @@
+package http;
+
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import utils.Config;
+
+/**
+ * Connect/read timeouts for RestAssured and per-call enforcement of the current {@link Deadline}:
+ * a call is refused once the deadline has passed, its timeouts are cut to the time that is left,
+ * and a timeout after expiry surfaces as {@link DeadlineExceededException}.
+ */
+public class DeadlineFilter implements Filter {
+    // the HttpClient 4 parameter names, spelled out because CoreConnectionPNames is deprecated
+    private static final String CONNECTION_TIMEOUT = "http.connection.timeout";
+    private static final String SOCKET_TIMEOUT = "http.socket.timeout";
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Deadline deadline = Deadline.current();
+        String url = requestSpec.getURI();
+        if (deadline != null) {
+            deadline.check(url);
+            RestAssuredConfig config = requestSpec.getConfig() != null ? requestSpec.getConfig() : RestAssured.config();
+            requestSpec.config(config.httpClient(withTimeouts(config.getHttpClientConfig(), deadline.remainingMillis())));
+        }
+        try {
+            return ctx.next(requestSpec, responseSpec);
+        } catch (Exception e) {
+            if (deadline != null && deadline.isExpired()) {
+                throw deadline.exceeded(url, e);
+            }
+            throw e;
+        }
+    }
+
+    public static RestAssuredConfig configure(RestAssuredConfig config) {
+        return config.httpClient(withTimeouts(config.getHttpClientConfig(), Long.MAX_VALUE));
+    }
+
+    private static HttpClientConfig withTimeouts(HttpClientConfig config, long remainingMillis) {
+        int cap = (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingMillis));
+        return config
+                .setParam(CONNECTION_TIMEOUT, Math.min(Config.getConnectTimeoutMillis(), cap))
+                .setParam(SOCKET_TIMEOUT, Math.min(Config.getReadTimeoutMillis(), cap));
+    }
+}
@@ -0,0 +1,341 @@
+package http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import utils.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Transport backed by the JDK {@link HttpClient} negotiating HTTP/2 (ALPN over TLS, h2c upgrade
+ * over plain HTTP). Concurrent calls from {@link #sendAsync} share one connection per host as
+ * multiplexed streams instead of each opening its own socket. Responses are negotiated with every
+ * {@link ContentCodec} available and decompressed while streaming. Every call holds a
+ * {@link ConcurrencyLimiter#shared()} slot until its response completes and is refused up front
+ * while its {@link CircuitBreakers} group is open. Connect and read timeouts come from {@link Config},
+ * the latter cut to the current {@link Deadline}, and async calls are cancelled when it expires.
+ * Calls authorized with a pooled token use whichever token {@link CredentialPool} schedules.
+ */
+public class Http2Transport implements HttpTransport {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUri;
+    private final Map<String, String> defaultHeaders;
+    private final ConcurrencyLimiter limiter = ConcurrencyLimiter.shared();
+    private final CredentialPool credentials = CredentialPool.shared();
+
+    public Http2Transport(String baseUri, Map<String, String> defaultHeaders) {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(Config.getConnectTimeoutMillis()))
+                .build(), baseUri, defaultHeaders);
+    }
+
+    public Http2Transport(HttpClient client, String baseUri, Map<String, String> defaultHeaders) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.defaultHeaders = defaultHeaders == null ? Collections.emptyMap() : defaultHeaders;
+    }
+
+    @Override
+    public Response send(TransportRequest request) {
+        try {
+            return sendAsync(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The body is decoded on a pool thread while it streams in, so only the decoded bytes are buffered.
+     * The caller never waits for a {@link ConcurrencyLimiter} slot: the exchange starts from the thread
+     * that frees one, and a wait that outlasts the current {@link Deadline} fails the future. A pooled
+     * token is taken first, on the caller, which only waits when every token is benched.
+     */
+    @Override
+    public CompletableFuture<Response> sendAsync(TransportRequest request) {
+        CallMetrics.Scope scope = CallMetrics.current();
+        String url = resolve(request).toString();
+        CallMetrics.trace(scope, request.getMethod(), url);
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            deadline.check(url);
+        }
+        CircuitBreaker.Permit permit = CircuitBreakers.acquire(url);
+        CredentialPool.Credential credential = credentialFor(request, permit);
+        CompletableFuture<Long> slot = limiter.acquireAsync();
+        if (deadline != null) {
+            deadline.bind(slot, url);
+        }
+        slot.whenComplete((start, e) -> {
+            if (e != null) {
+                permit.abandon();
+                release(credential, 0, null);
+            }
+        });
+        CompletableFuture<Response> response = slot.thenCompose(start -> exchange(request, url, scope, deadline, permit, credential, start));
+        if (deadline == null) {
+            return response;
+        }
+        return response.handle((r, e) -> {
+            if (e == null) {
+                return r;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CancellationException || deadline.wasExceeded()) {
+                throw deadline.exceeded(url, cause);
+            }
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+        });
+    }
+
+    private CompletableFuture<Response> exchange(TransportRequest request, String url, CallMetrics.Scope scope,
+                                                 Deadline deadline, CircuitBreaker.Permit permit,
+                                                 CredentialPool.Credential credential, long start) {
+        int[] status = new int[1];
+        long[] size = new long[1];
+        HttpResponse<?>[] received = new HttpResponse<?>[1];
+        HttpCallEvent event = HttpCallEvent.start(request.getMethod(), url);
+        CompletableFuture<Response> response;
+        try {
+            CompletableFuture<HttpResponse<InputStream>> exchange = client.sendAsync(toHttpRequest(request, credential), HttpResponse.BodyHandlers.ofInputStream());
+            if (deadline != null) {
+                deadline.bind(exchange, url);
+            }
+            response = exchange.thenApplyAsync(raw -> {
+                        try (InputStream body = decodedBody(raw)) {
+                            byte[] bytes = body.readAllBytes();
+                            CallMetrics.record(scope, raw.statusCode(), bytes.length);
+                            status[0] = raw.statusCode();
+                            size[0] = bytes.length;
+                            received[0] = raw;
+                            return toResponse(raw, bytes);
+                        } catch (IOException e) {
+                            CallMetrics.record(scope, 0, 0);
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            limiter.release(start, 0);
+            permit.record(true);
+            release(credential, 0, null);
+            event.finish(0, 0);
+            throw e;
+        }
+        return response.whenComplete((r, e) -> {
+            limiter.release(start, status[0]);
+            permit.record(CircuitBreakers.isFailure(status[0]));
+            release(credential, status[0], received[0]);
+            event.finish(status[0], size[0]);
+        });
+    }
+
+    @Override
+    public <T> T stream(TransportRequest request, BodyReader<T> reader) {
+        String url = resolve(request).toString();
+        CallMetrics.trace(CallMetrics.current(), request.getMethod(), url);
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            deadline.check(url);
+        }
+        CircuitBreaker.Permit permit = CircuitBreakers.acquire(url);
+        CredentialPool.Credential credential = credentialFor(request, permit);
+        long start;
+        try {
+            start = limiter.acquire();
+        } catch (RuntimeException e) {
+            permit.abandon();
+            release(credential, 0, null);
+            throw e;
+        }
+        int status = 0;
+        long[] decodedBytes = new long[1];
+        HttpResponse<InputStream> raw = null;
+        HttpCallEvent event = HttpCallEvent.start(request.getMethod(), url);
+        try {
+            raw = client.send(toHttpRequest(request, credential), HttpResponse.BodyHandlers.ofInputStream());
+            status = raw.statusCode();
+            try (InputStream body = new CountingInputStream(decodedBody(raw), n -> decodedBytes[0] = n)) {
+                return reader.read(status, toHeaders(raw), body);
+            } finally {
+                CallMetrics.record(CallMetrics.current(), status, decodedBytes[0]);
+            }
+        } catch (IOException e) {
+            if (deadline != null && deadline.isExpired()) {
+                throw deadline.exceeded(url, e);
+            }
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + request.getPath(), e);
+        } finally {
+            limiter.release(start, status);
+            permit.record(CircuitBreakers.isFailure(status));
+            release(credential, status, raw);
+            event.finish(status, decodedBytes[0]);
+        }
+    }
+
+    HttpRequest toHttpRequest(TransportRequest request) {
+        return toHttpRequest(request, null);
+    }
+
+    private HttpRequest toHttpRequest(TransportRequest request, CredentialPool.Credential credential) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(resolve(request));
+        builder.setHeader("Accept-Encoding", ContentCodec.acceptEncoding());
+        builder.timeout(Duration.ofMillis(readTimeoutMillis()));
+        defaultHeaders.forEach(builder::setHeader);
+        request.getHeaders().forEach(builder::setHeader);
+        if (credential != null) {
+            builder.setHeader("Authorization", "Bearer " + credential.token());
+        }
+
+        Object body = request.getBody();
+        if (body == null) {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            if (!request.getHeaders().containsKey("Content-Type") && !defaultHeaders.containsKey("Content-Type")) {
+                builder.setHeader("Content-Type", "application/json");
+            }
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.ofByteArray(serialize(body)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * A token from the {@link CredentialPool} when the request is authorized with one of its tokens, else null.
+     * Taken on the calling thread, where its {@link Deadline} applies, before any limiter slot is held;
+     * the breaker permit is given back when no token comes.
+     */
+    private CredentialPool.Credential credentialFor(TransportRequest request, CircuitBreaker.Permit permit) {
+        String authorization = request.getHeaders().getOrDefault("Authorization", defaultHeaders.get("Authorization"));
+        if (!credentials.isPooled() || !credentials.owns(authorization)) {
+            return null;
+        }
+        try {
+            return credentials.acquire();
+        } catch (RuntimeException e) {
+            permit.abandon();
+            throw e;
+        }
+    }
+
+    private void release(CredentialPool.Credential credential, int status, HttpResponse<?> raw) {
+        if (credential != null) {
+            credentials.release(credential, status, name -> raw == null ? null : raw.headers().firstValue(name).orElse(null));
+        }
+    }
+
+    /**
+     * The configured read timeout, cut to what is left of the current {@link Deadline}.
+     */
+    private static long readTimeoutMillis() {
+        Deadline deadline = Deadline.current();
+        long timeout = Config.getReadTimeoutMillis();
+        return deadline == null ? timeout : Math.max(1, Math.min(timeout, deadline.remainingMillis()));
+    }
+
+    URI resolve(TransportRequest request) {
+        String path = request.getPath();
+        StringBuilder url = new StringBuilder(path.startsWith("http://") || path.startsWith("https://") ? "" : baseUri)
+                .append(path);
+        char separator = url.indexOf("?") < 0 ? '?' : '&';
+        for (Map.Entry<String, String> param : request.getQueryParams().entrySet()) {
+            url.append(separator)
+               .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+               .append('=')
+               .append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        return URI.create(url.toString());
+    }
+
+    private static byte[] serialize(Object body) {
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        if (body instanceof String) {
+            return ((String) body).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body of type " + body.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Wire bytes -> decoder -> caller, counting on both sides of the decoder for {@link CompressionMetrics}.
+     */
+    static InputStream decodedBody(HttpResponse<InputStream> raw) throws IOException {
+        String url = raw.uri().toString();
+        InputStream wire = new CountingInputStream(raw.body(), n -> CompressionMetrics.recordWire(url, n));
+        ContentCodec codec = ContentCodec.forEncoding(raw.headers().firstValue("Content-Encoding").orElse(null));
+        InputStream decoded = wire;
+        if (codec != null) {
+            PushbackInputStream probe = new PushbackInputStream(wire, 1);
+            int first = probe.read();
+            if (first < 0) {
+                decoded = probe;
+            } else {
+                probe.unread(first);
+                decoded = codec.decode(probe);
+            }
+        }
+        return new CountingInputStream(decoded, n -> CompressionMetrics.recordDecoded(url, n));
+    }
+
+    static Response toResponse(HttpResponse<?> httpResponse, byte[] body) {
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(httpResponse.statusCode())
+                .setStatusLine(statusLine(httpResponse))
+                .setHeaders(toHeaders(httpResponse))
+                .setBody(body);
+        httpResponse.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        return builder.build();
+    }
+
+    static Headers toHeaders(HttpResponse<?> httpResponse) {
+        List<Header> headers = new ArrayList<>();
+        httpResponse.headers().map().forEach((name, values) -> {
+            for (String value : values) {
+                headers.add(new Header(name, value));
+            }
+        });
+        return new Headers(headers);
+    }
+
+    private static String statusLine(HttpResponse<?> httpResponse) {
+        String protocol = httpResponse.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        return protocol + " " + httpResponse.statusCode();
+    }
+}
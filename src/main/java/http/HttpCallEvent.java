@@ -0,0 +1,71 @@
+package http;
+
+import api.GitHubRoute;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.URI;
+
+/**
+ * Flight Recorder event for one HTTP call; its duration is the call's latency. Costs nothing
+ * unless a recording enables it (see {@code listeners.FlightRecorderListener}).
+ */
+@Name("github.HttpCall")
+@Label("GitHub HTTP Call")
+@Category({"GitHub API", "HTTP"})
+@Description("One REST call with its endpoint template, status and response size")
+@StackTrace(false)
+public class HttpCallEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    @Description("Route template, or the raw path when no route matches")
+    String endpoint;
+
+    @Label("Status")
+    int status;
+
+    @Label("Response Bytes")
+    @DataAmount
+    long bytes;
+
+    private transient String url;
+
+    public static HttpCallEvent start(String method, String url) {
+        HttpCallEvent event = new HttpCallEvent();
+        event.method = method;
+        event.url = url;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event; {@code status} 0 means no response.
+     */
+    public void finish(int status, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.endpoint = endpoint(url);
+            this.status = status;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+
+    static String endpoint(String url) {
+        String path;
+        try {
+            path = URI.create(url).getRawPath();
+        } catch (IllegalArgumentException e) {
+            path = url;
+        }
+        GitHubRoute route = path == null ? null : GitHubRoute.match(path);
+        return route != null ? route.template() : path;
+    }
+}
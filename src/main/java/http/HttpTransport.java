@@ -0,0 +1,35 @@
+package http;
+
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pluggable wire transport behind {@code ApiClient} and {@code GitHubRepositoryClient}.
+ * Every implementation hands back a RestAssured {@link Response} so callers can keep using
+ * {@code then()}, {@code jsonPath()} and {@code as(...)}.
+ */
+public interface HttpTransport {
+
+    Response send(TransportRequest request);
+
+    default CompletableFuture<Response> sendAsync(TransportRequest request) {
+        return CompletableFuture.supplyAsync(() -> send(request));
+    }
+
+    /**
+     * Hands the decoded body to {@code reader} as a stream. Transports that can read straight off
+     * the connection do so; the default falls back to the buffered {@link Response}.
+     */
+    default <T> T stream(TransportRequest request, BodyReader<T> reader) {
+        Response response = send(request);
+        try (InputStream body = response.asInputStream()) {
+            return reader.read(response.statusCode(), response.headers(), body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package http;
+
+import utils.Config;
+
+import java.util.Map;
+
+/**
+ * Picks the transport named by {@code GITHUB_HTTP_TRANSPORT} ({@code restassured} or {@code http2}).
+ */
+public final class HttpTransports {
+
+    private HttpTransports() {
+    }
+
+    public static HttpTransport create(String baseUri, Map<String, String> defaultHeaders) {
+        if ("http2".equalsIgnoreCase(Config.getHttpTransport())) {
+            return new Http2Transport(baseUri, defaultHeaders);
+        }
+        return new RestAssuredTransport(baseUri, defaultHeaders);
+    }
+}
@@ -0,0 +1,38 @@
+package http;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Map;
+
+/**
+ * Default transport: RestAssured on top of Apache HttpClient 4 (HTTP/1.1).
+ */
+public class RestAssuredTransport implements HttpTransport {
+    private final RequestSpecification baseSpec;
+
+    public RestAssuredTransport(RequestSpecification baseSpec) {
+        this.baseSpec = baseSpec;
+    }
+
+    public RestAssuredTransport(String baseUri, Map<String, String> defaultHeaders) {
+        this(new RequestSpecBuilder().setBaseUri(baseUri).addHeaders(defaultHeaders).build());
+    }
+
+    @Override
+    public Response send(TransportRequest request) {
+        RequestSpecification spec = RestAssured.given().spec(baseSpec);
+        if (!request.getHeaders().isEmpty()) {
+            spec.headers(request.getHeaders());
+        }
+        if (!request.getQueryParams().isEmpty()) {
+            spec.queryParams(request.getQueryParams());
+        }
+        if (request.getBody() != null) {
+            spec.body(request.getBody());
+        }
+        return spec.request(request.getMethod(), request.getPath());
+    }
+}
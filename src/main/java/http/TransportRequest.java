@@ -0,0 +1,47 @@
+package http;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Transport-neutral description of a single HTTP call.
+ * The path is resolved against the base URI of the transport that sends it.
+ */
+public class TransportRequest {
+    private final String method;
+    private final String path;
+    private final Map<String, String> headers;
+    private final Map<String, String> queryParams;
+    private final Object body;
+
+    public TransportRequest(String method, String path) {
+        this(method, path, Collections.emptyMap(), Collections.emptyMap(), null);
+    }
+
+    public TransportRequest(String method, String path, Map<String, String> headers, Object body) {
+        this(method, path, headers, Collections.emptyMap(), body);
+    }
+
+    public TransportRequest(String method, String path, Map<String, String> headers,
+                            Map<String, String> queryParams, Object body) {
+        this.method = method;
+        this.path = path == null ? "" : path;
+        this.headers = copyOf(headers);
+        this.queryParams = copyOf(queryParams);
+        this.body = body;
+    }
+
+    public String getMethod() { return method; }
+    public String getPath() { return path; }
+    public Map<String, String> getHeaders() { return headers; }
+    public Map<String, String> getQueryParams() { return queryParams; }
+    public Object getBody() { return body; }
+
+    private static Map<String, String> copyOf(Map<String, String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+}
@@ -0,0 +1,525 @@
+package store;
+
+import http.CredentialPool;
+import utils.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed store for immutable GitHub objects (commits, trees, blobs) keyed by
+ * (kind, SHA-1). Payloads are appended to {@code objects.dat}; {@code objects.idx} is a
+ * memory-mapped open-addressing hash table pointing into it. Reads return read-only slices of
+ * the mapped data file, so a hit costs no copy and no HTTP call.
+ *
+ * <p>Buffers returned by {@link #get} stay readable after compaction (they keep the old mapping
+ * alive) but no longer reflect the store. An open store holds an exclusive lock on
+ * {@code store.lock} in its directory, so a second process (or a second open in this one) fails
+ * with {@link IOException} instead of corrupting the index.
+ */
+public class ObjectStore implements Closeable {
+    private static final int DATA_MAGIC = 0x4F424A31;
+    private static final int RECORD_MAGIC = 0x52454331;
+    private static final int INDEX_MAGIC = 0x49445831;
+    private static final int DATA_HEADER = 8;
+    private static final int RECORD_HEADER = 4 + 1 + 20 + 4;
+    private static final int INDEX_HEADER = 32;
+    private static final int SLOT = 40;
+    private static final int MIN_CAPACITY = 1024;
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+
+    private static ObjectStore shared;
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final Path lockPath;
+    private final long maxBytes;
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private FileChannel data;
+    private long dataSize;
+    private MappedByteBuffer dataView;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int live;
+    private int used;
+    private long hits;
+    private long misses;
+
+    private ObjectStore(Path dir, long maxBytes) {
+        this.dataPath = dir.resolve("objects.dat");
+        this.indexPath = dir.resolve("objects.idx");
+        this.lockPath = dir.resolve("store.lock");
+        // Slices of the data mapping are int-indexed, so one store tops out just under 2 GB
+        this.maxBytes = Math.min(maxBytes, Integer.MAX_VALUE - 1);
+    }
+
+    public static ObjectStore open(Path dir, long maxBytes) throws IOException {
+        Files.createDirectories(dir);
+        ObjectStore store = new ObjectStore(dir, maxBytes);
+        store.lock();
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            store.unlock();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Process-wide store under GITHUB_OBJECT_STORE_DIR, capped at GITHUB_OBJECT_STORE_MAX_MB and closed on JVM exit.
+     * Each set of tokens gets its own subdirectory, so objects fetched with one set of repository
+     * permissions are never served to a run with another. When another JVM holds that directory
+     * this one gets a private store in a temporary directory for the rest of the run.
+     */
+    public static synchronized ObjectStore shared() throws IOException {
+        if (shared == null) {
+            Path dir = Paths.get(Config.getObjectStoreDir(), CredentialPool.shared().scopeId());
+            ObjectStore store;
+            try {
+                store = open(dir, Config.getObjectStoreMaxBytes());
+            } catch (StoreLockedException e) {
+                Path tmp = Files.createTempDirectory("object-store");
+                System.err.println(e.getMessage() + "; using a private store in " + tmp + " for this run");
+                store = open(tmp, Config.getObjectStoreMaxBytes());
+            }
+            ObjectStore opened = store;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    opened.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close object store: " + e.getMessage());
+                }
+            }));
+            shared = opened;
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the stored payload as a read-only zero-copy buffer, or null when absent.
+     */
+    public synchronized ByteBuffer get(byte kind, String sha) throws IOException {
+        int slot = find(kind, toBytes(sha));
+        if (slot < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        long offset = index.getLong(slotPosition(slot) + 24);
+        int length = index.getInt(slotPosition(slot) + 32);
+        long end = offset + RECORD_HEADER + length;
+        if (dataView == null || dataView.capacity() < end) {
+            dataView = data.map(FileChannel.MapMode.READ_ONLY, 0, dataSize);
+        }
+        ByteBuffer view = dataView.duplicate();
+        view.limit((int) end).position((int) (offset + RECORD_HEADER));
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    public synchronized boolean contains(byte kind, String sha) {
+        return find(kind, toBytes(sha)) >= 0;
+    }
+
+    /**
+     * Appends the payload unless the key is already present or the payload alone is larger than
+     * what compaction keeps (three quarters of the cap). Returns true when written.
+     */
+    public synchronized boolean put(byte kind, String sha, byte[] content) throws IOException {
+        byte[] key = toBytes(sha);
+        if (find(kind, key) >= 0 || DATA_HEADER + RECORD_HEADER + (long) content.length > evictionBudget()) {
+            return false;
+        }
+        long offset = append(kind, key, content, content.length);
+        insert(kind, key, offset, content.length);
+        if (dataSize > maxBytes) {
+            compact();
+        }
+        return true;
+    }
+
+    public synchronized boolean remove(byte kind, String sha) throws IOException {
+        byte[] key = toBytes(sha);
+        int slot = find(kind, key);
+        if (slot < 0) {
+            return false;
+        }
+        append(kind, key, null, -1);
+        index.putLong(slotPosition(slot) + 24, DELETED);
+        live--;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Rewrites the data file with only live records. When the store is over its size cap the
+     * oldest records are dropped until it is back under three quarters of the cap.
+     */
+    public synchronized void compact() throws IOException {
+        List<Entry> entries = liveEntries();
+        entries.sort(Comparator.comparingLong((Entry e) -> e.offset).reversed());
+        long budget = liveBytes(entries) > maxBytes ? evictionBudget() : Long.MAX_VALUE;
+        List<Entry> kept = new ArrayList<>();
+        long total = DATA_HEADER;
+        for (Entry entry : entries) {
+            total += RECORD_HEADER + entry.length;
+            if (total > budget) {
+                break;
+            }
+            kept.add(entry);
+        }
+        kept.sort(Comparator.comparingLong(e -> e.offset));
+
+        Path tmp = dataPath.resolveSibling("objects.dat.compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            writeFully(out, dataHeader(), 0);
+            long position = DATA_HEADER;
+            for (Entry entry : kept) {
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + entry.length);
+                data.read(record, entry.offset);
+                record.flip();
+                writeFully(out, record, position);
+                entry.offset = position;
+                position += RECORD_HEADER + entry.length;
+            }
+            out.force(true);
+        }
+        data.close();
+        Files.move(tmp, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openData();
+        dataView = null;
+        rebuildIndex(kept);
+    }
+
+    public synchronized long sizeBytes() {
+        return dataSize;
+    }
+
+    public synchronized int objectCount() {
+        return live;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (index != null) {
+                writeHeader();
+                index.force();
+            }
+            if (data != null && data.isOpen()) {
+                data.force(false);
+                data.close();
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new StoreLockedException("Object store " + lockPath.getParent() + " is open in another process");
+        }
+    }
+
+    private void unlock() throws IOException {
+        if (lockChannel != null) {
+            // closing the channel releases the lock
+            lockChannel.close();
+            lockChannel = null;
+            lock = null;
+        }
+    }
+
+    private void load() throws IOException {
+        openData();
+        if (dataSize < DATA_HEADER) {
+            data.truncate(0);
+            writeFully(data, dataHeader(), 0);
+            dataSize = DATA_HEADER;
+        }
+        if (!mapExistingIndex()) {
+            rebuildIndex(scan());
+        }
+    }
+
+    private void openData() throws IOException {
+        data = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataSize = data.size();
+    }
+
+    private boolean mapExistingIndex() throws IOException {
+        if (!Files.exists(indexPath) || Files.size(indexPath) < INDEX_HEADER) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int cap = mapped.getInt(4);
+            if (mapped.getInt(0) != INDEX_MAGIC || mapped.getLong(16) != dataSize
+                    || Integer.bitCount(cap) != 1 || channel.size() != INDEX_HEADER + (long) cap * SLOT) {
+                return false;
+            }
+            index = mapped;
+            capacity = cap;
+            live = mapped.getInt(8);
+            used = mapped.getInt(12);
+            return true;
+        }
+    }
+
+    /**
+     * Replays the data file to recover the index, truncating a torn record at the tail.
+     */
+    private List<Entry> scan() throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        long position = DATA_HEADER;
+        while (position + RECORD_HEADER <= dataSize) {
+            header.clear();
+            data.read(header, position);
+            header.flip();
+            if (header.getInt() != RECORD_MAGIC) {
+                break;
+            }
+            byte kind = header.get();
+            byte[] key = new byte[20];
+            header.get(key);
+            int length = header.getInt();
+            long next = position + RECORD_HEADER + Math.max(length, 0);
+            if (next > dataSize) {
+                break;
+            }
+            String mapKey = kind + ":" + toHex(key);
+            entries.remove(mapKey);
+            if (length >= 0) {
+                entries.put(mapKey, new Entry(kind, key, position, length));
+            }
+            position = next;
+        }
+        if (position != dataSize) {
+            data.truncate(position);
+            dataSize = position;
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    private void rebuildIndex(List<Entry> entries) throws IOException {
+        int cap = MIN_CAPACITY;
+        while (entries.size() * 10L >= cap * 7L) {
+            cap <<= 1;
+        }
+        Path tmp = indexPath.resolveSibling("objects.idx.tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            index = channel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) cap * SLOT);
+        }
+        capacity = cap;
+        live = 0;
+        used = 0;
+        for (Entry entry : entries) {
+            insert(entry.kind, entry.key, entry.offset, entry.length);
+        }
+        writeHeader();
+        index.force();
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long append(byte kind, byte[] key, byte[] content, int length) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + Math.max(length, 0));
+        record.putInt(RECORD_MAGIC).put(kind).put(key).putInt(length);
+        if (content != null) {
+            record.put(content);
+        }
+        record.flip();
+        long offset = dataSize;
+        writeFully(data, record, offset);
+        dataSize += record.capacity();
+        return offset;
+    }
+
+    private void insert(byte kind, byte[] key, long offset, int length) throws IOException {
+        if ((used + 1) * 10L >= capacity * 7L) {
+            rebuildIndex(liveEntries());
+        }
+        int slot = hash(key) & (capacity - 1);
+        while (index.getLong(slotPosition(slot) + 24) > EMPTY) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        int position = slotPosition(slot);
+        if (index.getLong(position + 24) == EMPTY) {
+            used++;
+        }
+        for (int i = 0; i < 20; i++) {
+            index.put(position + i, key[i]);
+        }
+        index.put(position + 20, kind);
+        index.putLong(position + 24, offset);
+        index.putInt(position + 32, length);
+        live++;
+        writeHeader();
+    }
+
+    private int find(byte kind, byte[] key) {
+        int slot = hash(key) & (capacity - 1);
+        for (int probes = 0; probes < capacity; probes++) {
+            int position = slotPosition(slot);
+            long offset = index.getLong(position + 24);
+            if (offset == EMPTY) {
+                return -1;
+            }
+            if (offset > EMPTY && index.get(position + 20) == kind && keyMatches(position, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    private boolean keyMatches(int position, byte[] key) {
+        for (int i = 0; i < 20; i++) {
+            if (index.get(position + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Entry> liveEntries() {
+        List<Entry> entries = new ArrayList<>(live);
+        for (int slot = 0; slot < capacity; slot++) {
+            int position = slotPosition(slot);
+            long offset = index.getLong(position + 24);
+            if (offset > EMPTY) {
+                byte[] key = new byte[20];
+                for (int i = 0; i < 20; i++) {
+                    key[i] = index.get(position + i);
+                }
+                entries.add(new Entry(index.get(position + 20), key, offset, index.getInt(position + 32)));
+            }
+        }
+        return entries;
+    }
+
+    private void writeHeader() {
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, capacity);
+        index.putInt(8, live);
+        index.putInt(12, used);
+        index.putLong(16, dataSize);
+    }
+
+    private long evictionBudget() {
+        return maxBytes * 3 / 4;
+    }
+
+    private static long liveBytes(List<Entry> entries) {
+        long total = DATA_HEADER;
+        for (Entry entry : entries) {
+            total += RECORD_HEADER + entry.length;
+        }
+        return total;
+    }
+
+    private static ByteBuffer dataHeader() {
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER);
+        header.putInt(DATA_MAGIC).putInt(1).flip();
+        return header;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int slotPosition(int slot) {
+        return INDEX_HEADER + slot * SLOT;
+    }
+
+    private static int hash(byte[] key) {
+        return (key[0] & 0xFF) << 24 | (key[1] & 0xFF) << 16 | (key[2] & 0xFF) << 8 | (key[3] & 0xFF);
+    }
+
+    static byte[] toBytes(String sha) {
+        if (sha == null || sha.length() != 40) {
+            throw new IllegalArgumentException("Expected a 40 character SHA-1, got: " + sha);
+        }
+        byte[] bytes = new byte[20];
+        for (int i = 0; i < 20; i++) {
+            int hi = Character.digit(sha.charAt(2 * i), 16);
+            int lo = Character.digit(sha.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) {
+                throw new IllegalArgumentException("Expected a hex SHA-1, got: " + sha);
+            }
+            bytes[i] = (byte) (hi << 4 | lo);
+        }
+        return bytes;
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * The store directory is locked by another open store.
+     */
+    public static final class StoreLockedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        StoreLockedException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Entry {
+        final byte kind;
+        final byte[] key;
+        long offset;
+        final int length;
+
+        Entry(byte kind, byte[] key, long offset, int length) {
+            this.kind = kind;
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
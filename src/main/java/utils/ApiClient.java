@@ -1,28 +1,36 @@
 package utils;
 
+import http.HttpTransport;
+import http.HttpTransports;
+import http.TransportRequest;
 import io.restassured.response.Response;
-import io.restassured.RestAssured;
+import java.util.Collections;
 import java.util.Map;
 
 public class ApiClient {
-    private static final String BASE_URL = "https://api.example.com"; // Replace with actual API base URL
+    private final HttpTransport transport;
 
     public ApiClient() {
+        this(HttpTransports.create(Config.getBaseUri(), Collections.emptyMap()));
+    }
+
+    public ApiClient(HttpTransport transport) {
+        this.transport = transport;
     }
 
     public Response get(String endpoint, Map<String, String> queryParams) {
-        return RestAssured.given().queryParams(queryParams).get(BASE_URL + endpoint);
+        return transport.send(new TransportRequest("GET", endpoint, Collections.emptyMap(), queryParams, null));
     }
 
     public Response post(String endpoint, Object body, Map<String, String> headers) {
-        return RestAssured.given().headers(headers).body(body).post(BASE_URL + endpoint);
+        return transport.send(new TransportRequest("POST", endpoint, headers, body));
     }
 
     public Response put(String endpoint, Object body, Map<String, String> headers) {
-        return RestAssured.given().headers(headers).body(body).put(BASE_URL + endpoint);
+        return transport.send(new TransportRequest("PUT", endpoint, headers, body));
     }
 
     public Response delete(String endpoint, Map<String, String> headers) {
-        return RestAssured.given().headers(headers).delete(BASE_URL + endpoint);
+        return transport.send(new TransportRequest("DELETE", endpoint, headers, null));
     }
 }
@@ -0,0 +1,251 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class Config {
+    private static volatile String baseUriOverride;
+
+    public static String getBaseUri() {
+        String override = baseUriOverride;
+        return override != null ? override : getUpstreamBaseUri();
+    }
+
+    /**
+     * GITHUB_API_BASE_URI, ignoring any override.
+     */
+    public static String getUpstreamBaseUri() {
+        String env = System.getenv("GITHUB_API_BASE_URI");
+        return env != null ? env : "https://api.github.com";
+    }
+
+    /**
+     * Sends every client to another base URI, such as a local fault injection proxy; null restores the default.
+     */
+    public static void setBaseUriOverride(String baseUri) {
+        baseUriOverride = baseUri;
+    }
+
+    public static String getAuthToken() {
+        String env = System.getenv("GITHUB_TOKEN");
+        if (env != null) {
+            return env;
+        }
+        List<String> tokens = getAuthTokens();
+        return tokens.isEmpty() ? null : tokens.get(0);
+    }
+
+    /**
+     * GITHUB_TOKEN followed by the comma-separated GITHUB_TOKENS, without duplicates.
+     */
+    public static List<String> getAuthTokens() {
+        Set<String> tokens = new LinkedHashSet<>();
+        String single = System.getenv("GITHUB_TOKEN");
+        if (single != null && !single.isEmpty()) {
+            tokens.add(single);
+        }
+        String pooled = System.getenv("GITHUB_TOKENS");
+        if (pooled != null) {
+            for (String token : pooled.split(",")) {
+                if (!token.trim().isEmpty()) {
+                    tokens.add(token.trim());
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public static String getHttpTransport() {
+        String env = System.getenv("GITHUB_HTTP_TRANSPORT");
+        return env != null ? env : "restassured";
+    }
+
+    public static String getObjectStoreDir() {
+        String env = System.getenv("GITHUB_OBJECT_STORE_DIR");
+        return env != null ? env : ".object-store";
+    }
+
+    public static long getObjectStoreMaxBytes() {
+        String env = System.getenv("GITHUB_OBJECT_STORE_MAX_MB");
+        return (env != null ? Long.parseLong(env) : 256L) * 1024 * 1024;
+    }
+
+    /**
+     * Public URL forwarding to the webhook receiver. A shard of a multi-shard run only uses its own
+     * GITHUB_SHARD_WEBHOOK_URL: one shared tunnel reaches one shard, so without it the shard does
+     * not wait for deliveries.
+     */
+    public static String getWebhookUrl() {
+        if (getShardCount() > 1) {
+            String env = System.getenv("GITHUB_SHARD_WEBHOOK_URL");
+            return env != null && !env.isEmpty() ? env : null;
+        }
+        return System.getenv("GITHUB_WEBHOOK_URL");
+    }
+
+    public static int getWebhookPort() {
+        String env = System.getenv(getShardCount() > 1 ? "GITHUB_SHARD_WEBHOOK_PORT" : "GITHUB_WEBHOOK_PORT");
+        return env != null && !env.isEmpty() ? Integer.parseInt(env) : 8089;
+    }
+
+    public static String getWebhookSecret() {
+        return System.getenv("GITHUB_WEBHOOK_SECRET");
+    }
+
+    public static long getWebhookTimeoutSeconds() {
+        String env = System.getenv("GITHUB_WEBHOOK_TIMEOUT_SECONDS");
+        return env != null ? Long.parseLong(env) : 30L;
+    }
+
+    public static String getMetricsHistoryFile() {
+        String env = System.getenv("GITHUB_METRICS_HISTORY");
+        return env != null ? env : ".metrics/history.tsv";
+    }
+
+    public static String getImpactTraceFile() {
+        String env = System.getenv("GITHUB_IMPACT_TRACES");
+        return env != null ? env : ".metrics/impact-traces.tsv";
+    }
+
+    public static String getImpactBase() {
+        return System.getenv("GITHUB_IMPACT_BASE");
+    }
+
+    public static int getShardCount() {
+        String env = System.getenv("GITHUB_SHARD_COUNT");
+        return env != null ? Integer.parseInt(env) : 1;
+    }
+
+    public static int getShardIndex() {
+        String env = System.getenv("GITHUB_SHARD_INDEX");
+        return env != null ? Integer.parseInt(env) : 0;
+    }
+
+    public static String getShardDir() {
+        String env = System.getenv("GITHUB_SHARD_DIR");
+        return env != null ? env : "target/shards/shard-" + getShardIndex();
+    }
+
+    public static int getConcurrencyInitialLimit() {
+        String env = System.getenv("GITHUB_CONCURRENCY_INITIAL");
+        return env != null ? Integer.parseInt(env) : 8;
+    }
+
+    public static int getConcurrencyMaxLimit() {
+        String env = System.getenv("GITHUB_CONCURRENCY_MAX");
+        return env != null ? Integer.parseInt(env) : 64;
+    }
+
+    public static double getCircuitFailureRate() {
+        String env = System.getenv("GITHUB_CIRCUIT_FAILURE_RATE");
+        return env != null ? Double.parseDouble(env) : 0.5;
+    }
+
+    public static long getCircuitOpenSeconds() {
+        String env = System.getenv("GITHUB_CIRCUIT_OPEN_SECONDS");
+        return env != null ? Long.parseLong(env) : 60L;
+    }
+
+    public static String getCircuitOpenAction() {
+        String env = System.getenv("GITHUB_CIRCUIT_OPEN_ACTION");
+        return env != null ? env : "skip";
+    }
+
+    public static int getConnectTimeoutMillis() {
+        String env = System.getenv("GITHUB_CONNECT_TIMEOUT_MS");
+        return env != null ? Integer.parseInt(env) : 10_000;
+    }
+
+    public static int getReadTimeoutMillis() {
+        String env = System.getenv("GITHUB_READ_TIMEOUT_MS");
+        return env != null ? Integer.parseInt(env) : 30_000;
+    }
+
+    public static long getTestDeadlineSeconds() {
+        String env = System.getenv("GITHUB_TEST_DEADLINE_SECONDS");
+        return env != null ? Long.parseLong(env) : 120L;
+    }
+
+    public static int getSandboxPoolSize() {
+        String env = System.getenv("GITHUB_SANDBOX_POOL_SIZE");
+        return env != null ? Integer.parseInt(env) : 2;
+    }
+
+    public static String getSandboxPrefix() {
+        String env = System.getenv("GITHUB_SANDBOX_PREFIX");
+        return env != null ? env : "api-sandbox-";
+    }
+
+    public static long getSandboxAcquireSeconds() {
+        String env = System.getenv("GITHUB_SANDBOX_ACQUIRE_SECONDS");
+        return env != null ? Long.parseLong(env) : 120;
+    }
+
+    public static String getJfrTests() {
+        return System.getenv("GITHUB_JFR");
+    }
+
+    public static long getJfrMaxBytes() {
+        String env = System.getenv("GITHUB_JFR_MAX_MB");
+        return (env != null ? Long.parseLong(env) : 32L) * 1024 * 1024;
+    }
+
+    public static int getStatsConcurrency() {
+        String env = System.getenv("GITHUB_STATS_CONCURRENCY");
+        return env != null ? Integer.parseInt(env) : 16;
+    }
+
+    public static long getStatsPollInitialMillis() {
+        String env = System.getenv("GITHUB_STATS_POLL_INITIAL_MS");
+        return env != null ? Long.parseLong(env) : 1000L;
+    }
+
+    public static long getStatsPollMaxMillis() {
+        String env = System.getenv("GITHUB_STATS_POLL_MAX_MS");
+        return env != null ? Long.parseLong(env) : 30000L;
+    }
+
+    public static long getStatsTimeoutSeconds() {
+        String env = System.getenv("GITHUB_STATS_TIMEOUT_SECONDS");
+        return env != null ? Long.parseLong(env) : 120L;
+    }
+
+    /**
+     * Rounds of the offline client and parsing warm-up before the first test; 0 skips it.
+     */
+    public static int getWarmupIterations() {
+        String env = System.getenv("GITHUB_WARMUP_ITERATIONS");
+        return env != null ? Integer.parseInt(env) : 0;
+    }
+
+    public static String getStartupHistoryFile() {
+        String env = System.getenv("GITHUB_STARTUP_HISTORY");
+        return env != null ? env : ".metrics/startup.tsv";
+    }
+
+    public static String getFaults() {
+        return System.getenv("GITHUB_FAULTS");
+    }
+
+    public static long getFaultSeed() {
+        String env = System.getenv("GITHUB_FAULT_SEED");
+        return env != null ? Long.parseLong(env) : 42L;
+    }
+
+    public static int getAllureBatchSize() {
+        String env = System.getenv("ALLURE_BATCH_SIZE");
+        return env != null ? Integer.parseInt(env) : 50;
+    }
+
+    public static int getAllureMaxStepNameChars() {
+        String env = System.getenv("ALLURE_MAX_STEP_NAME_CHARS");
+        return env != null ? Integer.parseInt(env) : 1024;
+    }
+
+    public static int getAllureMaxInlineAttachmentBytes() {
+        String env = System.getenv("ALLURE_MAX_INLINE_ATTACHMENT_KB");
+        return (env != null ? Integer.parseInt(env) : 256) * 1024;
+    }
+}
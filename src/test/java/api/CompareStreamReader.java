@@ -0,0 +1,160 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import http.HttpTransport;
+import http.TransportRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Walks GET /compare/{basehead} page by page with a streaming parser. Commits and files are handed
+ * to a {@link CompareVisitor} as they are tokenized and never collected, so memory stays flat no
+ * matter how large the diff is; patches and other unused subtrees are skipped unread.
+ */
+public class CompareStreamReader {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final HttpTransport transport;
+    private final int perPage;
+
+    public CompareStreamReader(HttpTransport transport, int perPage) {
+        this.transport = transport;
+        this.perPage = perPage;
+    }
+
+    public CompareSummary compare(String base, String head, CompareVisitor visitor) {
+        String path = "/compare/" + base + "..." + head;
+        CompareSummary summary = new CompareSummary();
+        for (int page = 1; ; page++) {
+            Map<String, String> query = new LinkedHashMap<>();
+            query.put("per_page", String.valueOf(perPage));
+            query.put("page", String.valueOf(page));
+            TransportRequest request = new TransportRequest("GET", path, Collections.emptyMap(), query, null);
+
+            int commitsOnPage = transport.stream(request, (status, headers, body) -> {
+                if (status != 200) {
+                    throw new IllegalStateException("Compare " + base + "..." + head + " returned HTTP " + status);
+                }
+                try (JsonParser parser = JSON.createParser(body)) {
+                    return readPage(parser, summary, visitor);
+                }
+            });
+            summary.pageRead();
+            if (summary.isStoppedEarly() || commitsOnPage < perPage
+                    || summary.getCommitsSeen() >= summary.getTotalCommits()) {
+                return summary;
+            }
+        }
+    }
+
+    private static int readPage(JsonParser parser, CompareSummary summary, CompareVisitor visitor) throws IOException {
+        int commitsOnPage = 0;
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "status":
+                    summary.setStatus(parser.getText());
+                    break;
+                case "ahead_by":
+                    summary.setAheadBy(parser.getIntValue());
+                    break;
+                case "behind_by":
+                    summary.setBehindBy(parser.getIntValue());
+                    break;
+                case "total_commits":
+                    summary.setTotalCommits(parser.getIntValue());
+                    break;
+                case "commits":
+                    expect(value, JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        commitsOnPage++;
+                        if (!readCommit(parser, summary, visitor)) {
+                            summary.stopEarly();
+                            return commitsOnPage;
+                        }
+                    }
+                    break;
+                case "files":
+                    expect(value, JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        if (!readFile(parser, summary, visitor)) {
+                            summary.stopEarly();
+                            return commitsOnPage;
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return commitsOnPage;
+    }
+
+    private static boolean readCommit(JsonParser parser, CompareSummary summary, CompareVisitor visitor) throws IOException {
+        String sha = null;
+        String message = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("sha".equals(field)) {
+                sha = parser.getText();
+            } else if ("commit".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    boolean isMessage = "message".equals(parser.currentName());
+                    parser.nextToken();
+                    if (isMessage) {
+                        message = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        summary.commitSeen();
+        return visitor.onCommit(sha, message);
+    }
+
+    private static boolean readFile(JsonParser parser, CompareSummary summary, CompareVisitor visitor) throws IOException {
+        String filename = null;
+        String status = null;
+        int additions = 0;
+        int deletions = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "filename":
+                    filename = parser.getText();
+                    break;
+                case "status":
+                    status = parser.getText();
+                    break;
+                case "additions":
+                    additions = parser.getIntValue();
+                    break;
+                case "deletions":
+                    deletions = parser.getIntValue();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        summary.fileSeen(additions, deletions);
+        return visitor.onFile(filename, status, additions, deletions);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected compare payload: expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package api;
+
+/**
+ * Running totals for a compare, built up one commit/file at a time.
+ */
+public class CompareSummary {
+    private String status;
+    private int aheadBy;
+    private int behindBy;
+    private int totalCommits;
+    private int commitsSeen;
+    private int filesChanged;
+    private long additions;
+    private long deletions;
+    private int pages;
+    private boolean stoppedEarly;
+
+    public String getStatus() { return status; }
+    public int getAheadBy() { return aheadBy; }
+    public int getBehindBy() { return behindBy; }
+    public int getTotalCommits() { return totalCommits; }
+    public int getCommitsSeen() { return commitsSeen; }
+    public int getFilesChanged() { return filesChanged; }
+    public long getAdditions() { return additions; }
+    public long getDeletions() { return deletions; }
+    public int getPages() { return pages; }
+    public boolean isStoppedEarly() { return stoppedEarly; }
+
+    void setStatus(String status) { this.status = status; }
+    void setAheadBy(int aheadBy) { this.aheadBy = aheadBy; }
+    void setBehindBy(int behindBy) { this.behindBy = behindBy; }
+    void setTotalCommits(int totalCommits) { this.totalCommits = totalCommits; }
+    void commitSeen() { commitsSeen++; }
+    void pageRead() { pages++; }
+    void stopEarly() { stoppedEarly = true; }
+
+    void fileSeen(int fileAdditions, int fileDeletions) {
+        filesChanged++;
+        additions += fileAdditions;
+        deletions += fileDeletions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("status=%s, ahead_by=%d, behind_by=%d, commits=%d/%d, files=%d, +%d/-%d, pages=%d%s",
+                status, aheadBy, behindBy, commitsSeen, totalCommits, filesChanged, additions, deletions, pages,
+                stoppedEarly ? " (stopped early)" : "");
+    }
+}
@@ -0,0 +1,16 @@
+package api;
+
+/**
+ * Callbacks for commits and files streamed out of a compare response.
+ * Returning false from either method stops the comparison without reading further pages.
+ */
+public interface CompareVisitor {
+
+    default boolean onCommit(String sha, String message) {
+        return true;
+    }
+
+    default boolean onFile(String filename, String status, int additions, int deletions) {
+        return true;
+    }
+}
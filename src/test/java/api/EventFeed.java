@@ -0,0 +1,237 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import http.HttpTransport;
+import http.TransportRequest;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Incremental consumer of an events endpoint ({@code /events} of a repository). Each poll sends the
+ * last ETag as {@code If-None-Match}, so an unchanged feed costs a 304 without a body and without
+ * using rate limit. New events are published oldest first to {@link Flow} subscribers; ids already
+ * seen (the last {@code seenCapacity}) are dropped. {@link #start()} polls on the interval GitHub
+ * asks for in {@code X-Poll-Interval}.
+ * Without an executor of its own, delivery runs on a daemon thread that {@link #close()} shuts down.
+ */
+public class EventFeed implements Flow.Publisher<EventFeed.Event>, AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long DEFAULT_POLL_SECONDS = 60;
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    private final HttpTransport transport;
+    private final String path;
+    private final Map<String, Boolean> seen;
+    private final SubmissionPublisher<Event> publisher;
+    private final ExecutorService ownDelivery;
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failedPolls = new AtomicLong();
+    private volatile Response lastResponse;
+    private volatile RuntimeException lastFailure;
+    private int consecutiveFailures;
+    private String etag;
+    private long pollIntervalSeconds = DEFAULT_POLL_SECONDS;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> nextPoll;
+
+    public EventFeed(HttpTransport transport, String path, int seenCapacity) {
+        this(transport, path, seenCapacity, Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "event-feed");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    public EventFeed(HttpTransport transport, String path, int seenCapacity, Executor delivery) {
+        this(transport, path, seenCapacity, delivery, false);
+    }
+
+    private EventFeed(HttpTransport transport, String path, int seenCapacity, Executor delivery, boolean ownsDelivery) {
+        this.transport = transport;
+        this.path = path;
+        this.seen = new LinkedHashMap<String, Boolean>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > seenCapacity;
+            }
+        };
+        this.publisher = new SubmissionPublisher<>(delivery, Flow.defaultBufferSize());
+        this.ownDelivery = ownsDelivery ? (ExecutorService) delivery : null;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Event> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * One conditional request; publishes and returns the events not seen before (none on a 304).
+     */
+    public synchronized List<Event> poll() {
+        Map<String, String> headers = etag == null
+                ? Collections.emptyMap()
+                : Collections.singletonMap("If-None-Match", etag);
+        Response response = transport.send(new TransportRequest("GET", path, headers, Collections.emptyMap(), null));
+        polls.incrementAndGet();
+        lastResponse = response;
+        String interval = response.header("X-Poll-Interval");
+        if (interval != null) {
+            pollIntervalSeconds = Long.parseLong(interval.trim());
+        }
+        if (response.statusCode() == 304) {
+            notModified.incrementAndGet();
+            return Collections.emptyList();
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned HTTP " + response.statusCode());
+        }
+        etag = response.header("ETag");
+        List<Event> fresh = new ArrayList<>();
+        try {
+            JsonNode page = MAPPER.readTree(response.asByteArray());
+            // the page is newest first; publish in the order things happened
+            for (int i = page.size() - 1; i >= 0; i--) {
+                JsonNode node = page.get(i);
+                String id = node.path("id").asText();
+                if (seen.put(id, Boolean.TRUE) == null) {
+                    fresh.add(new Event(id, node.path("type").asText(), node.path("created_at").asText(), node));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fresh.forEach(publisher::submit);
+        published.addAndGet(fresh.size());
+        return fresh;
+    }
+
+    /**
+     * Polls now and then again after every {@code X-Poll-Interval} (60 s until the server says otherwise).
+     * A failed poll is counted and kept as {@link #getLastFailure()}; after three in a row polling stops
+     * and subscribers get the failure through {@code onError}.
+     */
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "event-feed-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+            schedule(0);
+        }
+    }
+
+    private synchronized void schedule(long delaySeconds) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        nextPoll = scheduler.schedule(() -> {
+            try {
+                poll();
+                consecutiveFailures = 0;
+            } catch (RuntimeException e) {
+                failedPolls.incrementAndGet();
+                lastFailure = e;
+                if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                    scheduler.shutdown();
+                    publisher.closeExceptionally(e);
+                    return;
+                }
+            }
+            schedule(pollIntervalSeconds);
+        }, delaySeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized long getPollIntervalSeconds() {
+        return pollIntervalSeconds;
+    }
+
+    public long getPolls() {
+        return polls.get();
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getFailedPolls() {
+        return failedPolls.get();
+    }
+
+    /**
+     * The failure of the last scheduled poll that failed, or null.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * The response to the most recent poll (a 304 when nothing changed), or null before the first.
+     */
+    public Response getLastResponse() {
+        return lastResponse;
+    }
+
+    /**
+     * Stops polling and completes every subscriber once the events already published are delivered.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            nextPoll.cancel(false);
+            scheduler.shutdownNow();
+        }
+        publisher.close();
+        if (ownDelivery != null) {
+            // completion signals are already queued, so the delivery thread drains them and exits
+            ownDelivery.shutdown();
+        }
+    }
+
+    public static final class Event {
+        private final String id;
+        private final String type;
+        private final String createdAt;
+        private final JsonNode json;
+
+        Event(String id, String type, String createdAt, JsonNode json) {
+            this.id = id;
+            this.type = type;
+            this.createdAt = createdAt;
+            this.json = json;
+        }
+
+        public String getId() { return id; }
+        public String getType() { return type; }
+        public String getCreatedAt() { return createdAt; }
+        public JsonNode getJson() { return json; }
+
+        @Override
+        public String toString() {
+            return type + "#" + id;
+        }
+    }
+}
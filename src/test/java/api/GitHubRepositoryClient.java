@@ -1,40 +1,98 @@
 package api;
 
+import http.HttpTransport;
+import http.HttpTransports;
+import http.RestAssuredTransport;
+import http.TransportRequest;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import store.ObjectStore;
+import utils.Config;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class GitHubRepositoryClient {
-    private final RequestSpecification spec;
+    private final HttpTransport transport;
 
     public GitHubRepositoryClient(RequestSpecification spec) {
-        this.spec = spec;
+        this(new RestAssuredTransport(spec));
+    }
+
+    public GitHubRepositoryClient(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Client for /repos/{owner}/{repo} over the transport selected by GITHUB_HTTP_TRANSPORT.
+     */
+    public static GitHubRepositoryClient forRepository(String owner, String repo) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/vnd.github+json");
+        headers.put("Authorization", "Bearer " + Config.getAuthToken());
+        return new GitHubRepositoryClient(
+                HttpTransports.create(Config.getBaseUri() + GitHubRoute.REPOSITORY.expand(owner, repo), headers));
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
     }
 
     public Response getRepository() {
-        return spec.when().get();
+        return transport.send(new TransportRequest("GET", ""));
     }
 
     public Response updateRepository(Object updateBody, String authToken) {
-        return spec.header("Authorization", "Bearer " + authToken)
-                   .body(updateBody)
-                   .when().patch();
+        return transport.send(new TransportRequest("PATCH", "", bearer(authToken), updateBody));
     }
 
     public Response listEvents() {
-        return spec.when().get("/events");
+        return transport.send(new TransportRequest("GET", "/events"));
+    }
+
+    /**
+     * Conditional, de-duplicating consumer of /events; see {@link EventFeed}.
+     */
+    public EventFeed eventFeed() {
+        return new EventFeed(transport, "/events", 1000);
     }
 
     public Response listContributors() {
-        return spec.when().get("/contributors");
+        return transport.send(new TransportRequest("GET", "/contributors"));
     }
 
     public Response checkDependabot(String authToken) {
-        return spec.header("Authorization", "Bearer " + authToken)
-                   .when().get("/automated-security-fixes");
+        return transport.send(new TransportRequest("GET", "/automated-security-fixes", bearer(authToken), null));
+    }
+
+    /**
+     * Streams /compare/{base}...{head} page by page; see {@link CompareStreamReader}.
+     */
+    public CompareSummary compareCommits(String base, String head, CompareVisitor visitor) {
+        return new CompareStreamReader(transport, 100).compare(base, head, visitor);
+    }
+
+    /**
+     * Commits, trees and blobs by SHA, served from the shared {@link ObjectStore} when already stored.
+     */
+    public GitObjectClient gitObjects() throws IOException {
+        return new GitObjectClient(transport, ObjectStore.shared());
+    }
+
+    /**
+     * Many file changes on {@code branch} as one commit; see {@link GitTreeWriter}.
+     */
+    public GitTreeWriter treeWriter(String branch) {
+        return new GitTreeWriter(transport, branch);
     }
 
     public Response deleteRepository(String authToken) {
-        return spec.header("Authorization", "Bearer " + authToken)
-                   .when().delete();
+        return transport.send(new TransportRequest("DELETE", "", bearer(authToken), null));
+    }
+
+    private static Map<String, String> bearer(String authToken) {
+        return Collections.singletonMap("Authorization", "Bearer " + authToken);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package api;
+
+import http.CompressionTracking;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.specification.RequestSpecification;
+import utils.Config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable GitHub request headers and the shared base request spec, built once per token
+ * instead of on every call.
+ */
+public final class GitHubSpec {
+    private static volatile Snapshot snapshot;
+
+    private GitHubSpec() {
+    }
+
+    /**
+     * Accept, Accept-Encoding and Authorization headers for the configured token.
+     */
+    public static Headers headers() {
+        return current().headers;
+    }
+
+    /**
+     * Base spec (base URI plus {@link #headers()}). Use with {@code given().spec(...)}, which copies it.
+     */
+    public static RequestSpecification base() {
+        return current().spec;
+    }
+
+    private static Snapshot current() {
+        String token = Config.getAuthToken();
+        String baseUri = Config.getBaseUri();
+        Snapshot s = snapshot;
+        if (s == null || !s.matches(token, baseUri)) {
+            s = new Snapshot(token, baseUri);
+            snapshot = s;
+        }
+        return s;
+    }
+
+    private static final class Snapshot {
+        final String token;
+        final String baseUri;
+        final Headers headers;
+        final RequestSpecification spec;
+
+        Snapshot(String token, String baseUri) {
+            this.token = token;
+            this.baseUri = baseUri;
+            this.headers = new Headers(
+                    new Header("Accept", "application/vnd.github+json"),
+                    new Header("Accept-Encoding", CompressionTracking.ACCEPT_ENCODING),
+                    new Header("Authorization", "Bearer " + token));
+            this.spec = new RequestSpecBuilder()
+                    .setBaseUri(baseUri)
+                    .addHeaders(toMap(headers))
+                    .build();
+        }
+
+        boolean matches(String otherToken, String otherBaseUri) {
+            return Objects.equals(token, otherToken) && baseUri.equals(otherBaseUri);
+        }
+
+        private static Map<String, String> toMap(Headers headers) {
+            Map<String, String> map = new LinkedHashMap<>();
+            for (Header header : headers) {
+                map.put(header.getName(), header.getValue());
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import http.ConcurrencyLimiter;
+import http.Deadline;
+import http.DeadlineExceededException;
+import http.HttpTransport;
+import http.HttpTransports;
+import http.TransportRequest;
+import io.restassured.response.Response;
+import utils.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collects /stats/contributors, /stats/commit_activity and /stats/participation for many
+ * repositories at once. GitHub answers 202 while it computes statistics in the background; such a
+ * request gives up its slot and is sent again from a scheduler after an exponential, jittered
+ * backoff (GITHUB_STATS_POLL_INITIAL_MS doubling up to GITHUB_STATS_POLL_MAX_MS), so no thread
+ * waits on it. At most GITHUB_STATS_CONCURRENCY requests are in flight, fewer while the shared
+ * {@link ConcurrencyLimiter} allows fewer. Each 200 body, as the transport buffered it, is read
+ * token by token into the {@link StatsReport}'s weekly series and dropped without building a tree.
+ * Requests still pending after GITHUB_STATS_TIMEOUT_SECONDS, or when the current test's
+ * {@link Deadline} expires, are counted as timed out.
+ *
+ * <pre>
+ * try (GitHubStatsClient stats = GitHubStatsClient.create()) {
+ *     StatsReport report = stats.collect(Arrays.asList("octo/one", "octo/two")).join();
+ * }
+ * </pre>
+ * Requests are sent from the client's own scheduler thread, under the caller's deadline, and never
+ * from a completion callback. That thread waits only while every pooled token is benched; over
+ * RestAssured each in-flight request also holds a common-pool thread until its response arrives.
+ */
+public class GitHubStatsClient implements AutoCloseable {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int WEEKS = 52;
+
+    public enum Stat {
+        CONTRIBUTORS(GitHubRoute.STATS_CONTRIBUTORS),
+        COMMIT_ACTIVITY(GitHubRoute.STATS_COMMIT_ACTIVITY),
+        PARTICIPATION(GitHubRoute.STATS_PARTICIPATION);
+
+        private final GitHubRoute route;
+
+        Stat(GitHubRoute route) {
+            this.route = route;
+        }
+    }
+
+    private final HttpTransport transport;
+    private final int concurrency;
+    private final long initialPollMillis;
+    private final long maxPollMillis;
+    private final long timeoutMillis;
+    private final ConcurrencyLimiter limiter = ConcurrencyLimiter.shared();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stats-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GitHubStatsClient(HttpTransport transport, int concurrency, long initialPollMillis, long maxPollMillis,
+                             long timeoutMillis) {
+        this.transport = transport;
+        this.concurrency = concurrency;
+        this.initialPollMillis = initialPollMillis;
+        this.maxPollMillis = maxPollMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Client over the API root with the transport selected by GITHUB_HTTP_TRANSPORT and GITHUB_STATS_* settings.
+     */
+    public static GitHubStatsClient create() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/vnd.github+json");
+        headers.put("Authorization", "Bearer " + Config.getAuthToken());
+        return new GitHubStatsClient(HttpTransports.create(Config.getBaseUri(), headers), Config.getStatsConcurrency(),
+                Config.getStatsPollInitialMillis(), Config.getStatsPollMaxMillis(), Config.getStatsTimeoutSeconds() * 1000);
+    }
+
+    public CompletableFuture<StatsReport> collect(Collection<String> fullNames) {
+        return collect(fullNames, EnumSet.allOf(Stat.class));
+    }
+
+    /**
+     * Requests every stat of every {@code owner/repo}; completes when each has a final answer or timed out.
+     */
+    public CompletableFuture<StatsReport> collect(Collection<String> fullNames, Set<Stat> stats) {
+        Deadline deadline = Deadline.current();
+        long budget = deadline == null ? timeoutMillis : Math.min(timeoutMillis, deadline.remainingMillis());
+        Run run = new Run(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget), deadline);
+        for (String fullName : fullNames) {
+            int slash = fullName.indexOf('/');
+            if (slash <= 0 || slash == fullName.length() - 1) {
+                throw new IllegalArgumentException("Expected owner/repo, got '" + fullName + "'");
+            }
+            for (Stat stat : stats) {
+                run.ready.add(new Task(stat, stat.route.expand(fullName.substring(0, slash), fullName.substring(slash + 1))));
+            }
+        }
+        int tasks = run.ready.size();
+        run.report.requested(tasks);
+        run.unfinished.set(tasks);
+        if (tasks == 0) {
+            run.result.complete(run.report);
+            return run.result;
+        }
+        dispatch(run);
+        // requests still in flight when the budget runs out are not waited for
+        return run.result.orTimeout(Math.max(0, budget), TimeUnit.MILLISECONDS).exceptionally(timeout -> giveUp(run));
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // sends happen on the scheduler thread only, so a completion never starts the next request itself
+    private void dispatch(Run run) {
+        try {
+            scheduler.execute(() -> pump(run));
+        } catch (RejectedExecutionException e) {
+            abandon(run);
+        }
+    }
+
+    // starts queued requests while there are free slots; runs on the scheduler thread
+    private void pump(Run run) {
+        Deadline previous = Deadline.current();
+        Deadline.set(run.deadline);
+        try {
+            int slots = Math.max(1, Math.min(concurrency, limiter.limit()));
+            Task task;
+            while (run.inFlight.get() < slots && (task = run.ready.poll()) != null) {
+                if (System.nanoTime() - run.giveUpAtNanos >= 0) {
+                    run.ready.addFirst(task);
+                    abandon(run);
+                    return;
+                }
+                run.inFlight.incrementAndGet();
+                send(run, task);
+            }
+        } finally {
+            Deadline.set(previous);
+        }
+    }
+
+    private void send(Run run, Task task) {
+        CompletableFuture<Response> call;
+        try {
+            call = transport.sendAsync(new TransportRequest("GET", task.path));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            run.inFlight.decrementAndGet();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof DeadlineExceededException) {
+                finish(run, StatsReport::timedOut);
+            } else if (error != null) {
+                finish(run, report -> report.failed(0));
+            } else {
+                handle(run, task, response);
+            }
+            dispatch(run);
+        });
+    }
+
+    // the client was closed or the budget is spent: whatever is still queued will never be sent
+    private void abandon(Run run) {
+        Task task;
+        while ((task = run.ready.poll()) != null) {
+            finish(run, StatsReport::timedOut);
+        }
+    }
+
+    // completes the run with every request that has no final answer yet counted as timed out
+    private StatsReport giveUp(Run run) {
+        synchronized (run.report) {
+            for (int left = run.unfinished.getAndSet(0); left > 0; left--) {
+                run.report.timedOut();
+            }
+        }
+        run.ready.clear();
+        return run.report;
+    }
+
+    private void handle(Run run, Task task, Response response) {
+        if (run.unfinished.get() == 0) {
+            return;
+        }
+        int status = response.statusCode();
+        if (status == 202) {
+            synchronized (run.report) {
+                run.report.accepted();
+            }
+            long delay = backoff(task.polls++);
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - run.giveUpAtNanos > 0 || scheduler.isShutdown()) {
+                finish(run, StatsReport::timedOut);
+                return;
+            }
+            try {
+                scheduler.schedule(() -> {
+                    run.ready.addFirst(task);
+                    pump(run);
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                finish(run, StatsReport::timedOut);
+            }
+        } else if (status == 204) {
+            finish(run, StatsReport::empty);
+        } else if (status == 200) {
+            try (InputStream body = response.asInputStream(); JsonParser parser = JSON.createParser(body)) {
+                synchronized (run.report) {
+                    if (run.unfinished.get() == 0) {
+                        return;
+                    }
+                    aggregate(task.stat, parser, run.report);
+                    run.report.completed();
+                }
+                finish(run, report -> { });
+            } catch (IOException | RuntimeException e) {
+                finish(run, report -> report.failed(status));
+            }
+        } else {
+            finish(run, report -> report.failed(status));
+        }
+    }
+
+    private long backoff(int polls) {
+        long delay = Math.min(maxPollMillis, initialPollMillis << Math.min(polls, 20));
+        // +-20% so polls for repositories queued together spread out
+        return (long) (delay * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private void finish(Run run, Consumer<StatsReport> outcome) {
+        boolean last;
+        synchronized (run.report) {
+            // already counted as timed out by giveUp
+            if (run.unfinished.get() == 0) {
+                return;
+            }
+            outcome.accept(run.report);
+            last = run.unfinished.decrementAndGet() == 0;
+        }
+        if (last) {
+            run.result.complete(run.report);
+        }
+    }
+
+    private static void aggregate(Stat stat, JsonParser parser, StatsReport report) throws IOException {
+        JsonToken first = parser.nextToken();
+        switch (stat) {
+            case CONTRIBUTORS:
+                // [{"total": n, "weeks": [{"w": epoch, "a": adds, "d": dels, "c": commits}, ...], "author": {...}}, ...]
+                expect(first, JsonToken.START_ARRAY, stat);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    report.contributorSeen();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        parser.nextToken();
+                        if ("weeks".equals(field)) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                long week = 0;
+                                long adds = 0;
+                                long dels = 0;
+                                long commits = 0;
+                                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                    String key = parser.currentName();
+                                    parser.nextToken();
+                                    switch (key) {
+                                        case "w": week = parser.getLongValue(); break;
+                                        case "a": adds = parser.getLongValue(); break;
+                                        case "d": dels = parser.getLongValue(); break;
+                                        case "c": commits = parser.getLongValue(); break;
+                                        default: parser.skipChildren();
+                                    }
+                                }
+                                report.getContributorCommits().add(week, commits);
+                                report.getAdditions().add(week, adds);
+                                report.getDeletions().add(week, dels);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                break;
+            case COMMIT_ACTIVITY:
+                // [{"days": [sun, ..., sat], "total": n, "week": epoch}, ...]
+                expect(first, JsonToken.START_ARRAY, stat);
+                long[] days = new long[7];
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    long week = 0;
+                    long total = 0;
+                    int day = 0;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = parser.currentName();
+                        parser.nextToken();
+                        if ("days".equals(key)) {
+                            day = 0;
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                if (day < 7) {
+                                    days[day++] = parser.getLongValue();
+                                }
+                            }
+                        } else if ("total".equals(key)) {
+                            total = parser.getLongValue();
+                        } else if ("week".equals(key)) {
+                            week = parser.getLongValue();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (report.getActivityCommits().add(week, total)) {
+                        for (int d = 0; d < day; d++) {
+                            report.weekdayCommits(d, days[d]);
+                        }
+                    }
+                }
+                break;
+            case PARTICIPATION:
+                // {"all": [52 weeks, oldest first], "owner": [...]}
+                expect(first, JsonToken.START_OBJECT, stat);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.currentName();
+                    parser.nextToken();
+                    WeeklySeries series = "all".equals(key) ? report.getParticipationAll()
+                            : "owner".equals(key) ? report.getParticipationOwner() : null;
+                    if (series == null) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    // count first, since the array is aligned to the current week from its end
+                    long[] weeks = new long[WEEKS];
+                    int count = 0;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (count == weeks.length) {
+                            weeks = Arrays.copyOf(weeks, count * 2);
+                        }
+                        weeks[count++] = parser.getLongValue();
+                    }
+                    for (int i = 0; i < count; i++) {
+                        series.addWeeksAgo(count - 1 - i, weeks[i]);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unhandled stat " + stat);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, Stat stat) {
+        if (actual != expected) {
+            throw new IllegalStateException(stat + " body starts with " + actual + ", expected " + expected);
+        }
+    }
+
+    private static final class Task {
+        final Stat stat;
+        final String path;
+        int polls;
+
+        Task(Stat stat, String path) {
+            this.stat = stat;
+            this.path = path;
+        }
+    }
+
+    // the state of one collect() call
+    private static final class Run {
+        final StatsReport report = new StatsReport(System.currentTimeMillis() / 1000, WEEKS);
+        final ConcurrentLinkedDeque<Task> ready = new ConcurrentLinkedDeque<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger unfinished = new AtomicInteger();
+        final CompletableFuture<StatsReport> result = new CompletableFuture<>();
+        final long giveUpAtNanos;
+        final Deadline deadline;
+
+        Run(long giveUpAtNanos, Deadline deadline) {
+            this.giveUpAtNanos = giveUpAtNanos;
+            this.deadline = deadline;
+        }
+    }
+}
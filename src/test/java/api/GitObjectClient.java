@@ -0,0 +1,82 @@
+package api;
+
+import http.HttpTransport;
+import http.TransportRequest;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import store.ObjectStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Reads immutable objects of one repository (commits, trees and blobs addressed by full SHA)
+ * through an {@link ObjectStore}. Anything already stored is served without an HTTP call;
+ * refs such as branch names are never cached because they move.
+ */
+public class GitObjectClient {
+    private static final Pattern FULL_SHA = Pattern.compile("[0-9a-f]{40}");
+
+    public enum ObjectType {
+        COMMIT("/commits/"),
+        GIT_COMMIT("/git/commits/"),
+        TREE("/git/trees/"),
+        BLOB("/git/blobs/");
+
+        private final String pathPrefix;
+
+        ObjectType(String pathPrefix) {
+            this.pathPrefix = pathPrefix;
+        }
+
+        byte code() {
+            return (byte) (ordinal() + 1);
+        }
+    }
+
+    private final HttpTransport transport;
+    private final ObjectStore store;
+
+    public GitObjectClient(HttpTransport transport, ObjectStore store) {
+        this.transport = transport;
+        this.store = store;
+    }
+
+    /**
+     * Raw JSON of the object as a read-only buffer, fetched over HTTP only on a store miss.
+     */
+    public ByteBuffer get(ObjectType type, String sha) {
+        boolean cacheable = FULL_SHA.matcher(sha).matches();
+        try {
+            if (cacheable) {
+                ByteBuffer stored = store.get(type.code(), sha);
+                if (stored != null) {
+                    return stored;
+                }
+            }
+            Response response = transport.send(new TransportRequest("GET", type.pathPrefix + sha));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + type.pathPrefix + sha + " returned HTTP " + response.statusCode());
+            }
+            byte[] body = response.asByteArray();
+            if (cacheable) {
+                store.put(type.code(), sha, body);
+            }
+            return ByteBuffer.wrap(body).asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public JsonPath getJson(ObjectType type, String sha) {
+        ByteBuffer buffer = get(type, sha);
+        return new JsonPath(StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+
+    public ObjectStore getStore() {
+        return store;
+    }
+}
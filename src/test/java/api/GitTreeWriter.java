@@ -0,0 +1,201 @@
+package api;
+
+import http.HttpTransport;
+import http.TransportRequest;
+import io.restassured.response.Response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Writes many files to a branch as a single commit through the Git Data API, instead of one
+ * {@code PUT /contents/{path}} commit (plus a GET for the sha) per file:
+ * <ol>
+ *   <li>{@code GET /git/ref/heads/{branch}} and {@code GET /git/commits/{sha}} for the parent and its tree</li>
+ *   <li>{@code POST /git/blobs} for every binary or large file, all in flight at once</li>
+ *   <li>{@code POST /git/trees} on top of the parent tree; small UTF-8 files go inline here and deletions are null shas</li>
+ *   <li>{@code POST /git/commits} and one {@code PATCH /git/refs/heads/{branch}}, which fails instead of forcing when the branch moved</li>
+ * </ol>
+ * Writers are built with {@link GitHubRepositoryClient#treeWriter(String)} and are single use.
+ */
+public class GitTreeWriter {
+    private static final int INLINE_LIMIT_BYTES = 8 * 1024;
+    private static final String FILE_MODE = "100644";
+
+    private final HttpTransport transport;
+    private final String branch;
+    private final Map<String, byte[]> files = new LinkedHashMap<>();
+    private final List<String> deletions = new ArrayList<>();
+    private int calls;
+
+    public GitTreeWriter(HttpTransport transport, String branch) {
+        this.transport = transport;
+        this.branch = branch;
+    }
+
+    public GitTreeWriter put(String path, byte[] content) {
+        files.put(path, content);
+        return this;
+    }
+
+    public GitTreeWriter put(String path, String content) {
+        return put(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public GitTreeWriter delete(String path) {
+        deletions.add(path);
+        return this;
+    }
+
+    /**
+     * Creates the commit and moves the branch to it. Nothing is visible on the branch until the
+     * final ref update, so a failure part way leaves only unreferenced objects behind.
+     */
+    public Commit commit(String message) {
+        if (files.isEmpty() && deletions.isEmpty()) {
+            throw new IllegalStateException("Nothing to commit on " + branch);
+        }
+        String parent = call("GET", "/git/ref/heads/" + branch, null, 200).jsonPath().getString("object.sha");
+        String baseTree = call("GET", "/git/commits/" + parent, null, 200).jsonPath().getString("tree.sha");
+
+        Map<String, CompletableFuture<Response>> uploads = new LinkedHashMap<>();
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            String text = inlineText(file.getValue());
+            if (text != null) {
+                entries.add(entry(file.getKey(), "content", text));
+            } else {
+                Map<String, Object> blob = new HashMap<>();
+                blob.put("content", Base64.getEncoder().encodeToString(file.getValue()));
+                blob.put("encoding", "base64");
+                calls++;
+                uploads.put(file.getKey(), transport.sendAsync(new TransportRequest("POST", "/git/blobs", json(), blob)));
+            }
+        }
+        for (Map.Entry<String, CompletableFuture<Response>> upload : uploads.entrySet()) {
+            Response response = join(upload.getValue());
+            expect(response, "POST /git/blobs for " + upload.getKey(), 201);
+            entries.add(entry(upload.getKey(), "sha", response.jsonPath().getString("sha")));
+        }
+        for (String path : deletions) {
+            entries.add(entry(path, "sha", null));
+        }
+
+        Map<String, Object> tree = new HashMap<>();
+        tree.put("base_tree", baseTree);
+        tree.put("tree", entries);
+        String treeSha = call("POST", "/git/trees", tree, 201).jsonPath().getString("sha");
+
+        Map<String, Object> commit = new HashMap<>();
+        commit.put("message", message);
+        commit.put("tree", treeSha);
+        commit.put("parents", Collections.singletonList(parent));
+        String commitSha = call("POST", "/git/commits", commit, 201).jsonPath().getString("sha");
+
+        Map<String, Object> ref = new HashMap<>();
+        ref.put("sha", commitSha);
+        ref.put("force", false);
+        call("PATCH", "/git/refs/heads/" + branch, ref, 200);
+        return new Commit(commitSha, treeSha, parent, files.size(), deletions.size(), uploads.size(), calls);
+    }
+
+    private Response call(String method, String path, Object body, int expectedStatus) {
+        calls++;
+        Response response = transport.send(new TransportRequest(method, path, body == null ? Collections.emptyMap() : json(), body));
+        return expect(response, method + " " + path, expectedStatus);
+    }
+
+    private static Response expect(Response response, String call, int expectedStatus) {
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(call + " returned HTTP " + response.statusCode() + ": " + response.asString());
+        }
+        return response;
+    }
+
+    private static Response join(CompletableFuture<Response> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static Map<String, Object> entry(String path, String key, Object value) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("path", path);
+        entry.put("mode", FILE_MODE);
+        entry.put("type", "blob");
+        entry.put(key, value);
+        return entry;
+    }
+
+    private static Map<String, String> json() {
+        return Collections.singletonMap("Content-Type", "application/json");
+    }
+
+    // tree entries can carry small files as UTF-8 text, which saves their blob round trip
+    private static String inlineText(byte[] content) {
+        if (content.length > INLINE_LIMIT_BYTES) {
+            return null;
+        }
+        for (byte b : content) {
+            if (b == 0) {
+                return null;
+            }
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(content))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    public static final class Commit {
+        private final String sha;
+        private final String treeSha;
+        private final String parentSha;
+        private final int written;
+        private final int deleted;
+        private final int blobs;
+        private final int calls;
+
+        Commit(String sha, String treeSha, String parentSha, int written, int deleted, int blobs, int calls) {
+            this.sha = sha;
+            this.treeSha = treeSha;
+            this.parentSha = parentSha;
+            this.written = written;
+            this.deleted = deleted;
+            this.blobs = blobs;
+            this.calls = calls;
+        }
+
+        public String getSha() { return sha; }
+        public String getTreeSha() { return treeSha; }
+        public String getParentSha() { return parentSha; }
+        public int getWritten() { return written; }
+        public int getDeleted() { return deleted; }
+        public int getBlobs() { return blobs; }
+        public int getCalls() { return calls; }
+
+        @Override
+        public String toString() {
+            return sha + " (" + written + " written, " + deleted + " deleted, " + blobs + " blobs uploaded, "
+                    + calls + " API calls)";
+        }
+    }
+}
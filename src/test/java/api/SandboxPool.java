@@ -0,0 +1,241 @@
+package api;
+
+import http.Deadline;
+import http.HttpTransport;
+import http.HttpTransports;
+import http.TransportRequest;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import utils.Config;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warm sandbox repositories of the authenticated user (named GITHUB_SANDBOX_PREFIX + a unique suffix) that
+ * mutation tests lease instead of touching the shared test repository or creating their own.
+ * Sandboxes left by earlier runs are adopted; the rest of GITHUB_SANDBOX_POOL_SIZE is created on
+ * background threads as soon as the pool is first used. Closing a {@link Lease} resets the repo's
+ * settings in the background before it is leased again; a repo that was deleted under a lease, or
+ * cannot be reset, is replaced by a new one. Sandboxes are kept after the run for the next one.
+ * The pool is per JVM, so test JVMs running at the same time need different prefixes.
+ */
+public final class SandboxPool {
+    public static final String DESCRIPTION = "Sandbox repository for API tests";
+    private static SandboxPool shared;
+
+    private final HttpTransport transport;
+    private final String prefix;
+    private final int size;
+    private final LinkedBlockingQueue<String> ready = new LinkedBlockingQueue<>();
+    private final ExecutorService provisioner = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "sandbox-provisioner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger leases = new AtomicInteger();
+    private volatile String owner;
+
+    public SandboxPool(HttpTransport transport, String prefix, int size) {
+        this.transport = transport;
+        this.prefix = prefix;
+        this.size = size;
+    }
+
+    /**
+     * The suite-wide pool; starts provisioning on the first call.
+     */
+    public static synchronized SandboxPool shared() {
+        if (shared == null) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("Accept", "application/vnd.github+json");
+            headers.put("Authorization", "Bearer " + Config.getAuthToken());
+            shared = new SandboxPool(HttpTransports.create(Config.getBaseUri(), headers),
+                    Config.getSandboxPrefix(), Config.getSandboxPoolSize());
+            shared.provision();
+        }
+        return shared;
+    }
+
+    public static synchronized boolean isStarted() {
+        return shared != null;
+    }
+
+    /**
+     * Adopts existing sandboxes and creates the missing ones, without waiting for either.
+     */
+    public void provision() {
+        provisioner.execute(() -> {
+            int adopted = 0;
+            try {
+                Response response = transport.send(new TransportRequest("GET", "/user/repos", Collections.emptyMap(),
+                        Collections.singletonMap("per_page", "100"), null));
+                if (response.statusCode() == 200) {
+                    JsonPath repos = response.jsonPath();
+                    List<String> names = repos.getList("name");
+                    for (int i = 0; i < names.size() && adopted < size; i++) {
+                        String name = names.get(i);
+                        if (name.startsWith(prefix) && Boolean.TRUE.equals(repos.get("[" + i + "].permissions.admin"))) {
+                            owner = repos.getString("[" + i + "].owner.login");
+                            background(() -> reset(name));
+                            adopted++;
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not list existing sandboxes: " + e.getMessage());
+            }
+            for (int i = adopted; i < size; i++) {
+                background(this::create);
+            }
+        });
+    }
+
+    /**
+     * Leases a sandbox, waiting up to {@code timeout} (but not past the current {@link Deadline})
+     * for one to be created or reset.
+     */
+    public Lease acquire(Duration timeout) throws InterruptedException {
+        if (size <= 0) {
+            throw new IllegalStateException("Sandbox pool is disabled (GITHUB_SANDBOX_POOL_SIZE=0)");
+        }
+        Deadline deadline = Deadline.current();
+        boolean bounded = deadline != null && deadline.remainingMillis() < timeout.toMillis();
+        String name = ready.poll(bounded ? Math.max(0, deadline.remainingMillis()) : timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (name == null) {
+            if (bounded) {
+                throw deadline.exceeded("a sandbox repository", null);
+            }
+            throw new IllegalStateException("No sandbox repository became available within " + timeout.getSeconds() + "s");
+        }
+        leases.incrementAndGet();
+        return new Lease(name);
+    }
+
+    public Lease acquire() throws InterruptedException {
+        return acquire(Duration.ofSeconds(Config.getSandboxAcquireSeconds()));
+    }
+
+    public int available() {
+        return ready.size();
+    }
+
+    public String summary() {
+        return "Sandboxes: " + size + " pooled, " + ready.size() + " ready, " + created.get() + " created, "
+                + leases.get() + " leases";
+    }
+
+    private void create() {
+        String name = prefix + Long.toString(System.nanoTime(), 36);
+        Map<String, Object> body = new HashMap<>();
+        body.put("name", name);
+        body.put("description", DESCRIPTION);
+        body.put("private", false);
+        body.put("auto_init", true);
+        Response response = transport.send(new TransportRequest("POST", "/user/repos", json(), body));
+        if (response.statusCode() != 201) {
+            System.err.println("Could not create sandbox " + name + ": HTTP " + response.statusCode());
+            return;
+        }
+        owner = response.jsonPath().getString("owner.login");
+        created.incrementAndGet();
+        ready.add(name);
+    }
+
+    // puts back what tests are allowed to change; anything else means the sandbox is replaced
+    private void reset(String name) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("name", name);
+        body.put("description", DESCRIPTION);
+        body.put("homepage", "");
+        body.put("private", false);
+        body.put("has_issues", true);
+        body.put("has_wiki", true);
+        body.put("has_projects", true);
+        Response response = transport.send(new TransportRequest("PATCH", GitHubRoute.REPOSITORY.expand(owner, name), json(), body));
+        if (response.statusCode() == 200) {
+            ready.add(name);
+        } else {
+            System.err.println("Replacing sandbox " + name + ", reset returned HTTP " + response.statusCode());
+            discard(name);
+        }
+    }
+
+    private void discard(String name) {
+        transport.send(new TransportRequest("DELETE", GitHubRoute.REPOSITORY.expand(owner, name)));
+        create();
+    }
+
+    private void background(Runnable task) {
+        provisioner.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Sandbox provisioning failed: " + e);
+            }
+        });
+    }
+
+    private static Map<String, String> json() {
+        return Collections.singletonMap("Content-Type", "application/json");
+    }
+
+    /**
+     * Exclusive use of one sandbox until {@link #close()}.
+     */
+    public final class Lease implements AutoCloseable {
+        private final String name;
+        private boolean deleted;
+        private boolean closed;
+
+        private Lease(String name) {
+            this.name = name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFullName() {
+            return owner + "/" + name;
+        }
+
+        public GitHubRepositoryClient client() {
+            return GitHubRepositoryClient.forRepository(owner, name);
+        }
+
+        /**
+         * The test deleted the repository; a replacement is created instead of resetting it.
+         */
+        public void markDeleted() {
+            deleted = true;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (deleted) {
+                background(SandboxPool.this::create);
+            } else {
+                background(() -> reset(name));
+            }
+        }
+    }
+}
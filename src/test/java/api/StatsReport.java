@@ -0,0 +1,83 @@
+package api;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of many repositories summed into weekly series as each response arrives, plus how the
+ * requests went. Only the series and counters are kept, never the responses. Updated under its own
+ * lock by {@link GitHubStatsClient}; read it once the collect future completes.
+ */
+public class StatsReport {
+    private final WeeklySeries contributorCommits;
+    private final WeeklySeries additions;
+    private final WeeklySeries deletions;
+    private final WeeklySeries activityCommits;
+    private final WeeklySeries participationAll;
+    private final WeeklySeries participationOwner;
+    private final long[] commitsByWeekday = new long[7];
+    private final Map<Integer, Integer> failures = new TreeMap<>();
+    private int requests;
+    private int completed;
+    private int empty;
+    private int accepted;
+    private int timedOut;
+    private long contributors;
+
+    StatsReport(long lastWeekEpochSeconds, int weeks) {
+        contributorCommits = new WeeklySeries(lastWeekEpochSeconds, weeks);
+        additions = new WeeklySeries(lastWeekEpochSeconds, weeks);
+        deletions = new WeeklySeries(lastWeekEpochSeconds, weeks);
+        activityCommits = new WeeklySeries(lastWeekEpochSeconds, weeks);
+        participationAll = new WeeklySeries(lastWeekEpochSeconds, weeks);
+        participationOwner = new WeeklySeries(lastWeekEpochSeconds, weeks);
+    }
+
+    /** Commits per week from /stats/contributors, summed over contributors and repositories. */
+    public synchronized WeeklySeries getContributorCommits() { return contributorCommits; }
+    public synchronized WeeklySeries getAdditions() { return additions; }
+    public synchronized WeeklySeries getDeletions() { return deletions; }
+    /** Commits per week from /stats/commit_activity. */
+    public synchronized WeeklySeries getActivityCommits() { return activityCommits; }
+    /** Commits per week from /stats/participation, by everyone and by the repository owners. */
+    public synchronized WeeklySeries getParticipationAll() { return participationAll; }
+    public synchronized WeeklySeries getParticipationOwner() { return participationOwner; }
+    /** Commits by day of the week, Sunday first, from /stats/commit_activity. */
+    public synchronized long[] getCommitsByWeekday() { return commitsByWeekday.clone(); }
+    /** Contributor entries seen; a person contributing to several repositories counts once per repository. */
+    public synchronized long getContributors() { return contributors; }
+    public synchronized int getRequests() { return requests; }
+    public synchronized int getCompleted() { return completed; }
+    /** Requests answered with 204, GitHub's reply for an empty repository. */
+    public synchronized int getEmpty() { return empty; }
+    /** 202 responses, each one a poll while GitHub computed the statistics. */
+    public synchronized int getAccepted() { return accepted; }
+    /** Requests still 202 when the time budget ran out. */
+    public synchronized int getTimedOut() { return timedOut; }
+    /** Failed requests by status, 0 for no response. */
+    public synchronized Map<Integer, Integer> getFailures() { return new TreeMap<>(failures); }
+
+    public synchronized boolean isComplete() {
+        return completed + empty == requests;
+    }
+
+    void requested(int count) { requests += count; }
+    void completed() { completed++; }
+    void empty() { empty++; }
+    void accepted() { accepted++; }
+    void timedOut() { timedOut++; }
+    void failed(int status) { failures.merge(status, 1, Integer::sum); }
+    void contributorSeen() { contributors++; }
+
+    void weekdayCommits(int day, long commits) {
+        commitsByWeekday[day] += commits;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StatsReport(" + completed + "/" + requests + " completed, " + empty + " empty, " + accepted + " accepted, "
+                + timedOut + " timed out, failures " + failures + "; " + contributors + " contributors, commits "
+                + contributorCommits.total() + " by contributor, " + activityCommits.total() + " by activity, "
+                + participationAll.total() + " by participation over " + activityCommits.size() + " weeks)";
+    }
+}
@@ -0,0 +1,87 @@
+package api;
+
+import java.util.Arrays;
+
+/**
+ * A fixed window of weekly counters backed by one {@code long[]}, oldest week first. Weeks start on
+ * Sunday 00:00 UTC, as in GitHub's statistics. Values for weeks outside the window are dropped, so
+ * the series stays the same size however many repositories are added into it.
+ */
+public final class WeeklySeries {
+    public static final long WEEK_SECONDS = 7L * 24 * 3600;
+    private static final long DAY_SECONDS = 24L * 3600;
+
+    private final long firstWeek;
+    private final long[] values;
+
+    /**
+     * The {@code weeks} weeks ending with the one that contains {@code lastWeekEpochSeconds}.
+     */
+    public WeeklySeries(long lastWeekEpochSeconds, int weeks) {
+        this.firstWeek = weekStart(lastWeekEpochSeconds) - (weeks - 1) * WEEK_SECONDS;
+        this.values = new long[weeks];
+    }
+
+    /**
+     * Sunday 00:00 UTC of the week containing the instant.
+     */
+    public static long weekStart(long epochSeconds) {
+        long day = Math.floorDiv(epochSeconds, DAY_SECONDS);
+        // 1970-01-01 was a Thursday, four days after the Sunday that starts its week
+        return (day - Math.floorMod(day + 4, 7)) * DAY_SECONDS;
+    }
+
+    /**
+     * Adds to the week containing the instant; false when it falls outside the window.
+     */
+    public boolean add(long weekEpochSeconds, long value) {
+        long index = (weekStart(weekEpochSeconds) - firstWeek) / WEEK_SECONDS;
+        if (index < 0 || index >= values.length) {
+            return false;
+        }
+        values[(int) index] += value;
+        return true;
+    }
+
+    /**
+     * Adds to the week {@code weeksAgo} weeks before the last one (0 is the last week).
+     */
+    public boolean addWeeksAgo(int weeksAgo, long value) {
+        int index = values.length - 1 - weeksAgo;
+        if (index < 0 || index >= values.length) {
+            return false;
+        }
+        values[index] += value;
+        return true;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public long weekStartAt(int index) {
+        return firstWeek + index * WEEK_SECONDS;
+    }
+
+    public long total() {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "WeeklySeries(" + values.length + " weeks from " + firstWeek + ", total " + total() + ": "
+                + Arrays.toString(values) + ")";
+    }
+}
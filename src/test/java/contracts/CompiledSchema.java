@@ -0,0 +1,240 @@
+package contracts;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import http.CallMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JSON schema compiled into a tree of checks that validate a body in one streaming pass.
+ * Supports the subset our contracts use: type (single or list), enum, required, properties,
+ * items and $ref to another file in the schemas directory. Properties not named by the schema
+ * are skipped without being materialized.
+ */
+public final class CompiledSchema {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, CompiledSchema> CACHE = new HashMap<>();
+    private static final int MAX_ERRORS = 20;
+
+    private static final int OBJECT = 1;
+    private static final int ARRAY = 1 << 1;
+    private static final int STRING = 1 << 2;
+    private static final int INTEGER = 1 << 3;
+    private static final int NUMBER = 1 << 4;
+    private static final int BOOLEAN = 1 << 5;
+    private static final int NULL = 1 << 6;
+    private static final int ANY = (1 << 7) - 1;
+
+    private int types = ANY;
+    private Set<String> enumValues;
+    private Map<String, CompiledSchema> properties = new HashMap<>();
+    private Map<String, Integer> requiredIndex = new HashMap<>();
+    private String[] required = new String[0];
+    private CompiledSchema items;
+
+    private CompiledSchema() {
+    }
+
+    /**
+     * Compiled schema for a file under /schemas on the classpath, cached for the JVM's lifetime.
+     */
+    public static synchronized CompiledSchema load(String schemaFile) {
+        CompiledSchema cached = CACHE.get(schemaFile);
+        if (cached != null) {
+            return cached;
+        }
+        try (InputStream in = CompiledSchema.class.getResourceAsStream("/schemas/" + schemaFile)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Schema not found on classpath: /schemas/" + schemaFile);
+            }
+            CompiledSchema schema = compile(MAPPER.readTree(in));
+            CACHE.put(schemaFile, schema);
+            return schema;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read schema " + schemaFile, e);
+        }
+    }
+
+    /**
+     * Validates the whole body and returns the violations found (empty when it conforms).
+     */
+    public List<String> validate(String body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            CallMetrics.recordParse(body.length());
+            return validate(parser);
+        } catch (IOException e) {
+            return new ArrayList<>(Collections.singletonList("$: malformed JSON (" + e.getMessage() + ")"));
+        }
+    }
+
+    /**
+     * Validates the value the parser is positioned before, such as a {@link pojo.ResponseDocument#parser()} replay.
+     */
+    public List<String> validate(JsonParser parser) {
+        List<String> errors = new ArrayList<>();
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                errors.add("$: empty body");
+            } else {
+                check(parser, token, "$", errors);
+            }
+        } catch (IOException e) {
+            errors.add("$: malformed JSON (" + e.getMessage() + ")");
+        } catch (TooManyErrors e) {
+            errors.add("... stopped after " + MAX_ERRORS + " violations");
+        }
+        return errors;
+    }
+
+    private static CompiledSchema compile(JsonNode node) {
+        if (node.has("$ref")) {
+            return load(node.get("$ref").asText());
+        }
+        CompiledSchema schema = new CompiledSchema();
+        JsonNode type = node.get("type");
+        if (type != null) {
+            schema.types = 0;
+            if (type.isArray()) {
+                type.forEach(t -> schema.types |= typeBit(t.asText()));
+            } else {
+                schema.types = typeBit(type.asText());
+            }
+        }
+        if (node.has("enum")) {
+            schema.enumValues = new LinkedHashSet<>();
+            node.get("enum").forEach(v -> schema.enumValues.add(v.asText()));
+        }
+        if (node.has("properties")) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.get("properties").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                schema.properties.put(field.getKey(), compile(field.getValue()));
+            }
+        }
+        if (node.has("required")) {
+            List<String> names = new ArrayList<>();
+            node.get("required").forEach(r -> names.add(r.asText()));
+            schema.required = names.toArray(new String[0]);
+            for (int i = 0; i < schema.required.length; i++) {
+                schema.requiredIndex.put(schema.required[i], i);
+            }
+        }
+        if (node.has("items")) {
+            schema.items = compile(node.get("items"));
+        }
+        return schema;
+    }
+
+    private static int typeBit(String type) {
+        switch (type) {
+            case "object": return OBJECT;
+            case "array": return ARRAY;
+            case "string": return STRING;
+            case "integer": return INTEGER;
+            case "number": return NUMBER | INTEGER;
+            case "boolean": return BOOLEAN;
+            case "null": return NULL;
+            default: throw new IllegalArgumentException("Unsupported schema type: " + type);
+        }
+    }
+
+    private void check(JsonParser parser, JsonToken token, String path, List<String> errors) throws IOException {
+        int actual = tokenBit(token);
+        if ((types & actual) == 0) {
+            fail(errors, path + ": expected " + typeNames(types) + " but was " + typeNames(actual));
+            parser.skipChildren();
+            return;
+        }
+        if (enumValues != null && token.isScalarValue() && !enumValues.contains(parser.getText())) {
+            fail(errors, path + ": '" + parser.getText() + "' is not one of " + enumValues);
+        }
+        if (token == JsonToken.START_OBJECT) {
+            BitSet seen = new BitSet(required.length);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                Integer requiredSlot = requiredIndex.get(name);
+                if (requiredSlot != null) {
+                    seen.set(requiredSlot);
+                }
+                CompiledSchema property = properties.get(name);
+                if (property != null) {
+                    property.check(parser, value, path + "." + name, errors);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            for (int i = seen.nextClearBit(0); i < required.length; i = seen.nextClearBit(i + 1)) {
+                fail(errors, path + ": missing required property '" + required[i] + "'");
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (items != null) {
+                    items.check(parser, element, path + "[" + index + "]", errors);
+                } else {
+                    parser.skipChildren();
+                }
+                index++;
+            }
+        }
+    }
+
+    private static int tokenBit(JsonToken token) {
+        switch (token) {
+            case START_OBJECT: return OBJECT;
+            case START_ARRAY: return ARRAY;
+            case VALUE_STRING: return STRING;
+            case VALUE_NUMBER_INT: return INTEGER;
+            case VALUE_NUMBER_FLOAT: return NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE: return BOOLEAN;
+            case VALUE_NULL: return NULL;
+            default: return 0;
+        }
+    }
+
+    private static String typeNames(int bits) {
+        List<String> names = new ArrayList<>();
+        String[] all = {"object", "array", "string", "integer", "number", "boolean", "null"};
+        for (int i = 0; i < all.length; i++) {
+            if ((bits & (1 << i)) != 0) {
+                names.add(all[i]);
+            }
+        }
+        return names.size() == 1 ? names.get(0) : names.toString();
+    }
+
+    private static void fail(List<String> errors, String error) {
+        errors.add(error);
+        if (errors.size() >= MAX_ERRORS) {
+            throw new TooManyErrors();
+        }
+    }
+
+    private static final class TooManyErrors extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooManyErrors() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package contracts;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Offline tests of the streaming validator against the contract schemas under /schemas.
+ */
+public class CompiledSchemaTest {
+    private static final String REPOSITORY = "{\"id\":1,\"name\":\"r\",\"full_name\":\"o/r\",\"private\":false,"
+            + "\"description\":null,\"html_url\":\"https://github.com/o/r\",\"default_branch\":\"main\","
+            + "\"owner\":{\"login\":\"o\",\"id\":2},\"extra\":{\"nested\":[1,2,{\"deep\":true}]}}";
+
+    @Test
+    public void testConformingBodyHasNoViolations() {
+        Assert.assertEquals(CompiledSchema.load("repository.json").validate(REPOSITORY), Collections.emptyList());
+    }
+
+    @Test
+    public void testReportsMissingRequiredProperties() {
+        String body = REPOSITORY.replace("\"full_name\":\"o/r\",", "").replace("\"login\":\"o\",", "");
+        List<String> errors = CompiledSchema.load("repository.json").validate(body);
+        Assert.assertEquals(errors, List.of("$.owner: missing required property 'login'",
+                "$: missing required property 'full_name'"));
+    }
+
+    @Test
+    public void testReportsTypeMismatchWithPath() {
+        String body = REPOSITORY.replace("\"id\":2", "\"id\":2.5").replace("\"private\":false", "\"private\":\"no\"");
+        List<String> errors = CompiledSchema.load("repository.json").validate(body);
+        Assert.assertEquals(errors, List.of("$.private: expected boolean but was string",
+                "$.owner.id: expected integer but was number"));
+    }
+
+    @Test
+    public void testTypeListAllowsEachType() {
+        CompiledSchema schema = CompiledSchema.load("repository.json");
+        Assert.assertEquals(schema.validate(REPOSITORY.replace("\"description\":null", "\"description\":\"d\"")),
+                Collections.emptyList());
+        Assert.assertEquals(schema.validate(REPOSITORY.replace("\"description\":null", "\"description\":3")),
+                List.of("$.description: expected [string, null] but was integer"));
+    }
+
+    @Test
+    public void testEnum() {
+        CompiledSchema schema = CompiledSchema.load("contents.json");
+        String body = "{\"type\":\"file\",\"name\":\"a\",\"path\":\"a\",\"sha\":\"s\",\"size\":1}";
+        Assert.assertEquals(schema.validate(body), Collections.emptyList());
+        Assert.assertEquals(schema.validate(body.replace("\"file\"", "\"link\"")),
+                List.of("$.type: 'link' is not one of [file, dir, symlink, submodule]"));
+    }
+
+    @Test
+    public void testItemsFollowRefWithIndexedPaths() {
+        CompiledSchema schema = CompiledSchema.load("branch-list.json");
+        String good = "{\"name\":\"main\",\"protected\":false,\"commit\":{\"sha\":\"a\",\"url\":\"u\"}}";
+        String bad = "{\"name\":\"dev\",\"protected\":false,\"commit\":{\"sha\":1,\"url\":\"u\"}}";
+        Assert.assertEquals(schema.validate("[" + good + "," + bad + "]"),
+                List.of("$[1].commit.sha: expected string but was integer"));
+        Assert.assertEquals(schema.validate("{}"), List.of("$: expected array but was object"));
+    }
+
+    @Test
+    public void testStopsAfterTwentyViolations() {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 30; i++) {
+            body.append(i == 0 ? "" : ",").append("{}");
+        }
+        List<String> errors = CompiledSchema.load("branch-list.json").validate(body.append("]").toString());
+        Assert.assertEquals(errors.size(), 21);
+        Assert.assertEquals(errors.get(20), "... stopped after 20 violations");
+    }
+
+    @Test
+    public void testMalformedAndEmptyBodies() {
+        CompiledSchema schema = CompiledSchema.load("repository.json");
+        Assert.assertEquals(schema.validate(""), List.of("$: empty body"));
+        List<String> errors = schema.validate("{\"id\":");
+        Assert.assertEquals(errors.size(), 1);
+        Assert.assertTrue(errors.get(0).startsWith("$: malformed JSON"), errors.get(0));
+    }
+
+    @Test
+    public void testLoadCachesAndRejectsUnknownSchemas() {
+        Assert.assertSame(CompiledSchema.load("branch.json"), CompiledSchema.load("branch.json"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> CompiledSchema.load("missing.json"));
+    }
+}
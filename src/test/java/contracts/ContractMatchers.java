@@ -0,0 +1,49 @@
+package contracts;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Matcher;
+import pojo.ResponseDocument;
+
+import java.util.List;
+
+/**
+ * Hamcrest entry point for contract checks: {@code then().body(matchesContract(ResponseContract.BRANCH))}
+ * on a body string, or {@code assertThat(document, matchesContract(...))} on a {@link ResponseDocument},
+ * which replays the already parsed document instead of reading the body again.
+ * The schema is compiled once and the body is walked once, instead of one JsonPath evaluation per matcher.
+ */
+public final class ContractMatchers {
+
+    private ContractMatchers() {
+    }
+
+    public static Matcher<Object> matchesContract(ResponseContract contract) {
+        return new DiagnosingMatcher<Object>() {
+            @Override
+            protected boolean matches(Object body, Description mismatch) {
+                List<String> errors;
+                if (body instanceof ResponseDocument) {
+                    errors = contract.schema().validate(((ResponseDocument) body).parser());
+                } else if (body instanceof String) {
+                    errors = contract.schema().validate((String) body);
+                } else {
+                    mismatch.appendText("was ").appendValue(body);
+                    return false;
+                }
+                if (!errors.isEmpty()) {
+                    mismatch.appendText("violated ").appendText(contract.getSchemaFile()).appendText(":");
+                    for (String error : errors) {
+                        mismatch.appendText("\n    ").appendText(error);
+                    }
+                }
+                return errors.isEmpty();
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a body matching the " + contract.name() + " contract (" + contract.getSchemaFile() + ")");
+            }
+        };
+    }
+}
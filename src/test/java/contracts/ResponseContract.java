@@ -0,0 +1,33 @@
+package contracts;
+
+/**
+ * GitHub response types with a JSON schema under src/test/resources/schemas.
+ */
+public enum ResponseContract {
+    REPOSITORY("repository.json"),
+    BRANCH("branch.json"),
+    BRANCH_LIST("branch-list.json"),
+    COMMIT("commit.json"),
+    COMMIT_LIST("commit-list.json"),
+    COMPARE("compare.json"),
+    CONTENTS("contents.json"),
+    EVENT("event.json"),
+    EVENT_LIST("event-list.json");
+
+    private final String schemaFile;
+
+    ResponseContract(String schemaFile) {
+        this.schemaFile = schemaFile;
+    }
+
+    public String getSchemaFile() {
+        return schemaFile;
+    }
+
+    /**
+     * The compiled schema, built on first use and then shared for the rest of the suite.
+     */
+    public CompiledSchema schema() {
+        return CompiledSchema.load(schemaFile);
+    }
+}
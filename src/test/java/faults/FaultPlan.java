@@ -0,0 +1,187 @@
+package faults;
+
+import api.GitHubRoute;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Which faults {@link FaultProxy} injects, per endpoint. Written as rules separated by {@code ;},
+ * each an endpoint (a {@link GitHubRoute} name, or {@code *} for every other path) followed by
+ * comma-separated faults:
+ * <pre>
+ * COMPARE: latency=lognormal(300,0.6), bandwidth=64k; *: reset=0.02, burst=0.05x3, ratelimit=0.01
+ * </pre>
+ * <ul>
+ *   <li>{@code latency=fixed(ms)}, {@code uniform(min,max)} or {@code lognormal(medianMs,sigma)}: delay before forwarding;</li>
+ *   <li>{@code bandwidth=N[k|m]}: response body throttled to N bytes per second;</li>
+ *   <li>{@code reset=p}: the connection is dropped without a response;</li>
+ *   <li>{@code burst=pxN[:status]}: starts a run of N responses with status (default 502);</li>
+ *   <li>{@code ratelimit=p}: primary rate limit, a 403 with X-RateLimit-Remaining 0 and a reset in 60 s;</li>
+ *   <li>{@code secondary=p}: secondary rate limit, a 429 with Retry-After 1.</li>
+ * </ul>
+ * Probabilities are per request.
+ */
+public final class FaultPlan {
+    private final Map<String, Rule> rules;
+
+    private FaultPlan(Map<String, Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static FaultPlan parse(String spec) {
+        Map<String, Rule> rules = new LinkedHashMap<>();
+        for (String part : spec.split(";")) {
+            if (part.trim().isEmpty()) {
+                continue;
+            }
+            int colon = part.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Fault rule needs 'endpoint: faults', got '" + part.trim() + "'");
+            }
+            String endpoint = part.substring(0, colon).trim();
+            if (!"*".equals(endpoint)) {
+                GitHubRoute.valueOf(endpoint);
+            }
+            rules.put(endpoint, Rule.parse(part.substring(colon + 1)));
+        }
+        return new FaultPlan(rules);
+    }
+
+    /**
+     * The rule for a request path: its route's own rule, else the {@code *} rule, else no faults.
+     */
+    Rule ruleFor(String path) {
+        GitHubRoute route = GitHubRoute.match(path);
+        Rule rule = route == null ? null : rules.get(route.name());
+        if (rule == null) {
+            rule = rules.get("*");
+        }
+        return rule == null ? Rule.NONE : rule;
+    }
+
+    @Override
+    public String toString() {
+        return rules.toString();
+    }
+
+    static final class Rule {
+        static final Rule NONE = new Rule();
+
+        Latency latency = Latency.NONE;
+        long bytesPerSecond;
+        double reset;
+        double burst;
+        int burstLength;
+        int burstStatus = 502;
+        double rateLimit;
+        double secondaryLimit;
+
+        static Rule parse(String faults) {
+            Rule rule = new Rule();
+            // split on commas outside parentheses: "latency=uniform(1,2), reset=0.1"
+            for (String fault : faults.split(",(?![^()]*\\))")) {
+                String[] kv = fault.trim().split("=", 2);
+                if (kv.length != 2) {
+                    throw new IllegalArgumentException("Fault needs 'name=value', got '" + fault.trim() + "'");
+                }
+                String value = kv[1].trim();
+                switch (kv[0].trim()) {
+                    case "latency":
+                        rule.latency = Latency.parse(value);
+                        break;
+                    case "bandwidth":
+                        rule.bytesPerSecond = bytes(value);
+                        break;
+                    case "reset":
+                        rule.reset = Double.parseDouble(value);
+                        break;
+                    case "burst":
+                        String[] statusSplit = value.split(":");
+                        String[] burst = statusSplit[0].split("x");
+                        rule.burst = Double.parseDouble(burst[0]);
+                        rule.burstLength = burst.length > 1 ? Integer.parseInt(burst[1]) : 1;
+                        if (statusSplit.length > 1) {
+                            rule.burstStatus = Integer.parseInt(statusSplit[1]);
+                        }
+                        break;
+                    case "ratelimit":
+                        rule.rateLimit = Double.parseDouble(value);
+                        break;
+                    case "secondary":
+                        rule.secondaryLimit = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown fault '" + kv[0].trim() + "'");
+                }
+            }
+            return rule;
+        }
+
+        private static long bytes(String value) {
+            String lower = value.toLowerCase(Locale.ROOT);
+            if (lower.endsWith("k")) {
+                return Long.parseLong(lower.substring(0, lower.length() - 1)) * 1024;
+            }
+            if (lower.endsWith("m")) {
+                return Long.parseLong(lower.substring(0, lower.length() - 1)) * 1024 * 1024;
+            }
+            return Long.parseLong(lower);
+        }
+
+        @Override
+        public String toString() {
+            return "latency=" + latency + ", bandwidth=" + bytesPerSecond + ", reset=" + reset + ", burst=" + burst + "x"
+                    + burstLength + ":" + burstStatus + ", ratelimit=" + rateLimit + ", secondary=" + secondaryLimit;
+        }
+    }
+
+    static final class Latency {
+        static final Latency NONE = new Latency("none", 0, 0);
+
+        private final String kind;
+        private final double a;
+        private final double b;
+
+        private Latency(String kind, double a, double b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        static Latency parse(String value) {
+            int open = value.indexOf('(');
+            if (open < 0 || !value.endsWith(")")) {
+                throw new IllegalArgumentException("Latency needs kind(args), got '" + value + "'");
+            }
+            String kind = value.substring(0, open).trim();
+            String[] args = value.substring(open + 1, value.length() - 1).split(",");
+            double a = Double.parseDouble(args[0].trim());
+            double b = args.length > 1 ? Double.parseDouble(args[1].trim()) : 0;
+            if (!kind.equals("fixed") && !kind.equals("uniform") && !kind.equals("lognormal")) {
+                throw new IllegalArgumentException("Unknown latency distribution '" + kind + "'");
+            }
+            return new Latency(kind, a, b);
+        }
+
+        long sampleMillis(Random random) {
+            switch (kind) {
+                case "fixed":
+                    return (long) a;
+                case "uniform":
+                    return (long) (a + random.nextDouble() * (b - a));
+                case "lognormal":
+                    return (long) (a * Math.exp(b * random.nextGaussian()));
+                default:
+                    return 0;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return kind + "(" + a + "," + b + ")";
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package faults;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * Offline tests of rule parsing and per-path rule lookup in {@link FaultPlan}.
+ */
+public class FaultPlanTest {
+    private static final String COMPARE_PATH = "/repos/octo/one/compare/main...topic";
+
+    @Test
+    public void testParsesEveryFault() {
+        FaultPlan plan = FaultPlan.parse("COMPARE: latency=lognormal(300,0.6), bandwidth=64k; "
+                + "*: reset=0.02, burst=0.05x3:503, ratelimit=0.01, secondary=0.2, bandwidth=2m");
+        FaultPlan.Rule compare = plan.ruleFor(COMPARE_PATH);
+        Assert.assertEquals(compare.latency.toString(), "lognormal(300.0,0.6)");
+        Assert.assertEquals(compare.bytesPerSecond, 64 * 1024);
+
+        FaultPlan.Rule other = plan.ruleFor("/repos/octo/one");
+        Assert.assertEquals(other.reset, 0.02);
+        Assert.assertEquals(other.burst, 0.05);
+        Assert.assertEquals(other.burstLength, 3);
+        Assert.assertEquals(other.burstStatus, 503);
+        Assert.assertEquals(other.rateLimit, 0.01);
+        Assert.assertEquals(other.secondaryLimit, 0.2);
+        Assert.assertEquals(other.bytesPerSecond, 2 * 1024 * 1024);
+    }
+
+    @Test
+    public void testRouteRuleReplacesWildcardRule() {
+        FaultPlan plan = FaultPlan.parse("*: reset=0.5; COMPARE: burst=0.1");
+        FaultPlan.Rule compare = plan.ruleFor(COMPARE_PATH + "?per_page=1");
+        Assert.assertEquals(compare.reset, 0.0, "route rules are not merged with the * rule");
+        Assert.assertEquals(compare.burstLength, 1);
+        Assert.assertEquals(compare.burstStatus, 502);
+        Assert.assertEquals(plan.ruleFor("/user").reset, 0.5);
+    }
+
+    @Test
+    public void testPathWithoutRuleGetsNoFaults() {
+        FaultPlan plan = FaultPlan.parse("COMPARE: reset=1;");
+        Assert.assertSame(plan.ruleFor("/repos/octo/one"), FaultPlan.Rule.NONE);
+        Assert.assertSame(plan.ruleFor("/not/a/route"), FaultPlan.Rule.NONE);
+        Assert.assertSame(FaultPlan.parse("").ruleFor(COMPARE_PATH), FaultPlan.Rule.NONE);
+    }
+
+    @Test
+    public void testRejectsMalformedRules() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> FaultPlan.parse("reset=0.1"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FaultPlan.parse("NO_SUCH_ROUTE: reset=0.1"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FaultPlan.parse("*: reset"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FaultPlan.parse("*: jitter=0.1"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FaultPlan.parse("*: latency=300"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FaultPlan.parse("*: latency=pareto(1,2)"));
+    }
+
+    @Test
+    public void testLatencySamples() {
+        Random random = new Random(42);
+        FaultPlan.Rule rule = FaultPlan.parse("*: latency=uniform(10,20)").ruleFor("/user");
+        for (int i = 0; i < 100; i++) {
+            long millis = rule.latency.sampleMillis(random);
+            Assert.assertTrue(millis >= 10 && millis <= 20, "uniform(10,20) drew " + millis);
+        }
+        Assert.assertEquals(FaultPlan.parse("*: latency=fixed(7)").ruleFor("/user").latency.sampleMillis(random), 7);
+        Assert.assertEquals(FaultPlan.Rule.NONE.latency.sampleMillis(random), 0);
+    }
+}
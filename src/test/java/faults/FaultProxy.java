@@ -0,0 +1,269 @@
+package faults;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP proxy in front of the GitHub API that injects the faults of a {@link FaultPlan}:
+ * latency, bandwidth limits, dropped connections, 5xx bursts and rate-limit responses. Requests
+ * that draw no fault are forwarded to the upstream unchanged. The random source is seeded, so a
+ * sequential run draws the same faults every time. Upstream URLs in {@code Link} (pagination) and
+ * {@code Location} headers are rewritten to the proxy, so following them stays behind it.
+ *
+ * <pre>
+ * try (FaultProxy proxy = FaultProxy.start("https://api.github.com", FaultPlan.parse("*: burst=0.1x3"), 42)) {
+ *     GitHubRepositoryClient client = new GitHubRepositoryClient(HttpTransports.create(proxy.baseUri() + "/repos/o/r", headers));
+ * }
+ * </pre>
+ * With GITHUB_FAULTS set, {@link #installIfConfigured()} routes every client of the suite through one.
+ */
+public class FaultProxy implements Closeable {
+    private static final Set<String> HOP_BY_HOP = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "expect", "host", "keep-alive", "proxy-connection", "te", "trailer",
+            "transfer-encoding", "upgrade"));
+    private static final Set<String> URL_HEADERS = new HashSet<>(Arrays.asList("link", "location"));
+    private static final int CHUNK_BYTES = 4096;
+    private static FaultProxy installed;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final HttpClient upstreamClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private final String upstream;
+    private final FaultPlan plan;
+    private final Random random;
+    private final Map<String, Integer> burstsLeft = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> injected = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+
+    private FaultProxy(String upstream, FaultPlan plan, long seed, int port) throws IOException {
+        this.upstream = upstream.endsWith("/") ? upstream.substring(0, upstream.length() - 1) : upstream;
+        this.plan = plan;
+        this.random = new Random(seed);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fault-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.createContext("/", this::handle);
+    }
+
+    public static FaultProxy start(String upstream, FaultPlan plan, long seed) throws IOException {
+        FaultProxy proxy = new FaultProxy(upstream, plan, seed, 0);
+        proxy.server.start();
+        return proxy;
+    }
+
+    /**
+     * Starts the suite-wide proxy when GITHUB_FAULTS is set and points {@link Config#getBaseUri()} at it.
+     */
+    public static synchronized void installIfConfigured() throws IOException {
+        String spec = Config.getFaults();
+        if (installed != null || spec == null || spec.isEmpty()) {
+            return;
+        }
+        installed = start(Config.getUpstreamBaseUri(), FaultPlan.parse(spec), Config.getFaultSeed());
+        Config.setBaseUriOverride(installed.baseUri());
+        Runtime.getRuntime().addShutdownHook(new Thread(installed::close, "fault-proxy-stop"));
+        System.out.println("Fault injection proxy on " + installed.baseUri() + " for " + installed.upstream + ": " + installed.plan);
+    }
+
+    public static synchronized FaultProxy installed() {
+        return installed;
+    }
+
+    public String baseUri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long injected(String fault) {
+        AtomicLong count = injected.get(fault);
+        return count == null ? 0 : count.get();
+    }
+
+    public String summary() {
+        StringJoiner out = new StringJoiner(", ", "Fault proxy: " + requests.get() + " requests, injected ", "");
+        new TreeMap<>(injected).forEach((fault, count) -> out.add(fault + " " + count));
+        return out.toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getRawPath();
+        FaultPlan.Rule rule = plan.ruleFor(path);
+        try {
+            long delay;
+            boolean reset;
+            boolean rateLimit;
+            boolean secondaryLimit;
+            int burstStatus;
+            // one draw per fault in a fixed order keeps the sequence reproducible for a given seed
+            synchronized (random) {
+                delay = rule.latency.sampleMillis(random);
+                reset = random.nextDouble() < rule.reset;
+                rateLimit = random.nextDouble() < rule.rateLimit;
+                secondaryLimit = random.nextDouble() < rule.secondaryLimit;
+                burstStatus = burst(path, rule, random.nextDouble());
+            }
+            if (delay > 0) {
+                count("latency");
+                Thread.sleep(delay);
+            }
+            if (reset) {
+                count("reset");
+                // closing before any response is written drops the connection
+                exchange.getRequestBody().close();
+                exchange.close();
+                return;
+            }
+            if (rateLimit) {
+                count("ratelimit");
+                exchange.getResponseHeaders().set("X-RateLimit-Limit", "5000");
+                exchange.getResponseHeaders().set("X-RateLimit-Remaining", "0");
+                exchange.getResponseHeaders().set("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 60));
+                respond(exchange, 403, "{\"message\":\"API rate limit exceeded (injected)\"}");
+                return;
+            }
+            if (secondaryLimit) {
+                count("secondary");
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 429, "{\"message\":\"You have exceeded a secondary rate limit (injected)\"}");
+                return;
+            }
+            if (burstStatus > 0) {
+                count("burst");
+                respond(exchange, burstStatus, "{\"message\":\"Injected upstream failure\"}");
+                return;
+            }
+            forward(exchange, rule.bytesPerSecond);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } catch (IOException e) {
+            if (exchange.getResponseCode() != -1) {
+                exchange.close();
+                return;
+            }
+            respond(exchange, 502, "{\"message\":\"Proxy could not reach upstream: " + String.valueOf(e.getMessage()).replace('"', '\'') + "\"}");
+        }
+    }
+
+    // status of the running or newly started burst for this endpoint, 0 when none
+    private int burst(String path, FaultPlan.Rule rule, double draw) {
+        int left = burstsLeft.getOrDefault(path, 0);
+        if (left == 0 && rule.burstLength > 0 && draw < rule.burst) {
+            left = rule.burstLength;
+        }
+        if (left == 0) {
+            return 0;
+        }
+        burstsLeft.put(path, left - 1);
+        return rule.burstStatus;
+    }
+
+    private void forward(HttpExchange exchange, long bytesPerSecond) throws IOException, InterruptedException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upstream + exchange.getRequestURI()))
+                .method(exchange.getRequestMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> request.header(name, value));
+            }
+        });
+        HttpResponse<byte[]> response = upstreamClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        response.headers().map().forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (URL_HEADERS.contains(lower)) {
+                values.forEach(value -> exchange.getResponseHeaders().add(name, toProxy(value)));
+            } else if (!HOP_BY_HOP.contains(lower) && !name.startsWith(":")) {
+                exchange.getResponseHeaders().put(name, values);
+            }
+        });
+        byte[] payload = response.body();
+        boolean noBody = payload.length == 0 || response.statusCode() == 204 || response.statusCode() == 304
+                || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(response.statusCode(), noBody ? -1 : payload.length);
+        if (noBody) {
+            exchange.close();
+            return;
+        }
+        if (bytesPerSecond > 0) {
+            count("bandwidth");
+        }
+        try (OutputStream out = exchange.getResponseBody()) {
+            long started = System.nanoTime();
+            for (int offset = 0; offset < payload.length; offset += CHUNK_BYTES) {
+                int length = Math.min(CHUNK_BYTES, payload.length - offset);
+                out.write(payload, offset, length);
+                out.flush();
+                if (bytesPerSecond > 0) {
+                    long due = (offset + length) * 1_000_000_000L / bytesPerSecond;
+                    long ahead = due - (System.nanoTime() - started);
+                    if (ahead > 0) {
+                        Thread.sleep(ahead / 1_000_000, (int) (ahead % 1_000_000));
+                    }
+                }
+            }
+        }
+    }
+
+    // upstream + path is what forward() requests for proxy + path, so swapping the prefix keeps the target
+    String toProxy(String headerValue) {
+        return headerValue.replace(upstream + "/", baseUri() + "/");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void count(String fault) {
+        injected.computeIfAbsent(fault, f -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,133 @@
+package faults;
+
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline tests of {@link FaultProxy} in front of a loopback upstream: forwarding, URL header
+ * rewriting and the reproducibility of a seeded fault sequence.
+ */
+public class FaultProxyTest {
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+    private HttpServer upstream;
+    private String upstreamUri;
+
+    @BeforeClass
+    public void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstreamUri = "http://" + upstream.getAddress().getHostString() + ":" + upstream.getAddress().getPort();
+        upstream.createContext("/", exchange -> {
+            upstreamRequests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            String query = exchange.getRequestURI().getRawQuery();
+            if ("POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Location", upstreamUri + "/repos/octo/created");
+            } else if (query == null) {
+                exchange.getResponseHeaders().set("Link", "<" + upstreamUri + "/repos/octo/one?page=2>; rel=\"next\", "
+                        + "<https://example.com/elsewhere>; rel=\"help\"");
+            }
+            byte[] body = ("{\"path\":\"" + exchange.getRequestURI() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders("POST".equals(exchange.getRequestMethod()) ? 201 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    public void testForwardsAndRewritesLinkAndLocation() throws Exception {
+        try (FaultProxy proxy = FaultProxy.start(upstreamUri + "/", FaultPlan.parse(""), 1)) {
+            HttpResponse<String> first = get(proxy, "/repos/octo/one");
+            Assert.assertEquals(first.statusCode(), 200);
+            Assert.assertEquals(first.body(), "{\"path\":\"/repos/octo/one\"}");
+            String link = first.headers().firstValue("Link").orElse("");
+            Assert.assertEquals(link, "<" + proxy.baseUri() + "/repos/octo/one?page=2>; rel=\"next\", "
+                    + "<https://example.com/elsewhere>; rel=\"help\"");
+
+            String next = link.substring(1, link.indexOf('>'));
+            HttpResponse<String> second = client.send(HttpRequest.newBuilder(URI.create(next)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Assert.assertEquals(second.body(), "{\"path\":\"/repos/octo/one?page=2\"}", "the next page is fetched through the proxy");
+
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(proxy.baseUri() + "/user/repos"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{}")).build(), HttpResponse.BodyHandlers.ofString());
+            Assert.assertEquals(created.statusCode(), 201);
+            Assert.assertEquals(created.headers().firstValue("Location").orElse(""), proxy.baseUri() + "/repos/octo/created");
+            Assert.assertEquals(proxy.requests(), 3);
+        }
+    }
+
+    @Test
+    public void testToProxyRewritesOnlyUpstreamUrls() throws IOException {
+        try (FaultProxy proxy = FaultProxy.start(upstreamUri, FaultPlan.parse(""), 1)) {
+            Assert.assertEquals(proxy.toProxy(upstreamUri + "/repositories?since=5"), proxy.baseUri() + "/repositories?since=5");
+            Assert.assertEquals(proxy.toProxy("https://example.com/repositories"), "https://example.com/repositories");
+            Assert.assertEquals(proxy.toProxy(upstreamUri + "0/user"), upstreamUri + "0/user", "another port is another upstream");
+        }
+    }
+
+    @Test
+    public void testSameSeedInjectsSameFaults() throws Exception {
+        String spec = "*: burst=0.2x2:503, ratelimit=0.1, secondary=0.15";
+        List<Integer> first = statuses(spec, 42);
+        List<Integer> again = statuses(spec, 42);
+        List<Integer> other = statuses(spec, 7);
+        Assert.assertEquals(again, first);
+        Assert.assertNotEquals(other, first, "another seed draws other faults");
+        Assert.assertTrue(first.contains(200) && first.contains(503) && first.contains(403) && first.contains(429),
+                "every configured fault is drawn at least once: " + first);
+    }
+
+    @Test
+    public void testResetDropsTheConnection() throws IOException {
+        int before = upstreamRequests.get();
+        try (FaultProxy proxy = FaultProxy.start(upstreamUri, FaultPlan.parse("REPOSITORY: reset=1"), 1)) {
+            Assert.assertThrows(IOException.class, () -> get(proxy, "/repos/octo/one"));
+            // HttpClient retries an idempotent GET once on a dropped connection
+            Assert.assertTrue(proxy.injected("reset") >= 1);
+        }
+        Assert.assertEquals(upstreamRequests.get(), before, "a reset request never reaches the upstream");
+    }
+
+    private List<Integer> statuses(String spec, long seed) throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+        try (FaultProxy proxy = FaultProxy.start(upstreamUri, FaultPlan.parse(spec), seed)) {
+            for (int i = 0; i < 40; i++) {
+                statuses.add(get(proxy, "/repos/octo/one").statusCode());
+            }
+            Assert.assertEquals(proxy.injected("burst") + proxy.injected("ratelimit") + proxy.injected("secondary"),
+                    statuses.stream().filter(status -> status != 200).count());
+        }
+        return statuses;
+    }
+
+    private HttpResponse<String> get(FaultProxy proxy, String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(proxy.baseUri() + path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,116 @@
+package http;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Offline tests of the {@link CircuitBreaker} state machine.
+ */
+public class CircuitBreakerTest {
+    private static final long OPEN_MILLIS = 50;
+
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker("TEST", 10, 4, 0.5, 60_000, OPEN_MILLIS);
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.tryAcquire().record(true);
+        }
+    }
+
+    private static void coolDown() throws InterruptedException {
+        Thread.sleep(OPEN_MILLIS + 20);
+    }
+
+    @Test
+    public void testOpensAtFailureRateOnceEnoughCalls() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, 3);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.CLOSED, "below minCalls");
+        breaker.tryAcquire().record(false);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.OPEN, "3 of 4 calls failed");
+        Assert.assertNull(breaker.tryAcquire());
+        Assert.assertEquals(breaker.rejected(), 1);
+    }
+
+    @Test
+    public void testStaysClosedBelowFailureRate() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 10; i++) {
+            breaker.tryAcquire().record(i % 4 == 3);
+        }
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testSingleProbeClosesOnSuccess() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, 4);
+        coolDown();
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        Assert.assertTrue(probe.isProbe());
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.HALF_OPEN);
+        Assert.assertNull(breaker.tryAcquire(), "only one probe at a time");
+        probe.record(false);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.CLOSED);
+        Assert.assertFalse(breaker.tryAcquire().isProbe());
+    }
+
+    @Test
+    public void testFailedProbeReopens() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, 4);
+        coolDown();
+        breaker.tryAcquire().record(true);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.OPEN);
+        Assert.assertNull(breaker.tryAcquire(), "a new cool-down starts");
+    }
+
+    @Test
+    public void testLateResultsDoNotStandInForTheProbe() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        CircuitBreaker.Permit slowSuccess = breaker.tryAcquire();
+        CircuitBreaker.Permit slowFailure = breaker.tryAcquire();
+        fail(breaker, 4);
+        coolDown();
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+
+        slowSuccess.record(false);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.HALF_OPEN, "a call from before the breaker opened is ignored");
+        slowFailure.record(true);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.HALF_OPEN);
+
+        probe.record(false);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testLateFailuresDoNotCountAfterClosing() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        CircuitBreaker.Permit[] slow = new CircuitBreaker.Permit[4];
+        for (int i = 0; i < slow.length; i++) {
+            slow[i] = breaker.tryAcquire();
+        }
+        fail(breaker, 4);
+        coolDown();
+        breaker.tryAcquire().record(false);
+        for (CircuitBreaker.Permit permit : slow) {
+            permit.record(true);
+        }
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testAbandonedProbeLetsAnotherThrough() throws InterruptedException {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, 4);
+        coolDown();
+        breaker.tryAcquire().abandon();
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.HALF_OPEN);
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        Assert.assertNotNull(probe);
+        probe.record(false);
+        Assert.assertEquals(breaker.state(), CircuitBreaker.State.CLOSED);
+    }
+}
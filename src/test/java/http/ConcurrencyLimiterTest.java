@@ -0,0 +1,106 @@
+package http;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Offline tests of slot hand-out, queueing and the adaptive limit of {@link ConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testQueuedSlotsAreGrantedInOrder() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        CompletableFuture<Long> first = limiter.acquireAsync();
+        CompletableFuture<Long> second = limiter.acquireAsync();
+        CompletableFuture<Long> third = limiter.acquireAsync();
+        Assert.assertTrue(first.isDone());
+        Assert.assertFalse(second.isDone());
+        Assert.assertEquals(limiter.waiting(), 2);
+
+        limiter.release(first.join(), 200);
+        Assert.assertTrue(second.isDone());
+        Assert.assertFalse(third.isDone());
+        limiter.release(second.join(), 200);
+        Assert.assertTrue(third.isDone());
+        limiter.release(third.join(), 200);
+        Assert.assertEquals(limiter.inFlight(), 0);
+    }
+
+    @Test
+    public void testCancelledWaiterLeavesTheQueue() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        CompletableFuture<Long> held = limiter.acquireAsync();
+        CompletableFuture<Long> cancelled = limiter.acquireAsync();
+        cancelled.cancel(true);
+        Assert.assertEquals(limiter.waiting(), 0);
+
+        limiter.release(held.join(), 200);
+        Assert.assertEquals(limiter.inFlight(), 0, "the cancelled waiter took no slot");
+        Assert.assertTrue(limiter.acquireAsync().isDone(), "a free slot is handed out at once");
+    }
+
+    @Test
+    public void testAbandonReturnsAGrantedSlot() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        CompletableFuture<Long> granted = limiter.acquireAsync();
+        CompletableFuture<Long> next = limiter.acquireAsync();
+        limiter.abandon(granted);
+        Assert.assertTrue(next.isDone(), "the abandoned slot goes to the next waiter");
+        Assert.assertEquals(limiter.inFlight(), 1);
+        Assert.assertEquals(limiter.limit(), 1, "an abandoned slot does not feed the limit");
+    }
+
+    @Test
+    public void testBlockingAcquireStopsAtDeadline() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        CompletableFuture<Long> held = limiter.acquireAsync();
+        Deadline deadline = Deadline.start("testBlockingAcquireStopsAtDeadline", Duration.ofMillis(100));
+        Deadline.set(deadline);
+        try {
+            Assert.assertThrows(DeadlineExceededException.class, limiter::acquire);
+            Assert.assertTrue(deadline.wasExceeded());
+        } finally {
+            Deadline.clear();
+            deadline.close();
+        }
+        Assert.assertEquals(limiter.waiting(), 0);
+        limiter.release(held.join(), 200);
+        Assert.assertEquals(limiter.inFlight(), 0);
+    }
+
+    @Test
+    public void testThrottlingHalvesAndGrowthIsCapped() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 9);
+        limiter.release(limiter.acquire(), 429);
+        Assert.assertEquals(limiter.limit(), 4);
+        limiter.release(limiter.acquire(), 503);
+        limiter.release(limiter.acquire(), 0);
+        Assert.assertEquals(limiter.limit(), 1);
+        // other callers keep half the limit busy, so each fast success may grow it
+        Deque<CompletableFuture<Long>> busy = new ArrayDeque<>();
+        for (int i = 0; i < 20; i++) {
+            while (busy.size() < limiter.limit() / 2) {
+                busy.add(limiter.acquireAsync());
+            }
+            limiter.release(limiter.acquire(), 200);
+        }
+        Assert.assertEquals(limiter.limit(), 9);
+        busy.forEach(limiter::abandon);
+        Assert.assertEquals(limiter.inFlight(), 0);
+    }
+
+    @Test
+    public void testSequentialCallsDoNotGrowTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 64);
+        for (int i = 0; i < 100; i++) {
+            limiter.release(limiter.acquire(), 200);
+        }
+        Assert.assertTrue(limiter.limit() <= 3, "one call at a time only needs a small limit, got " + limiter.limit());
+    }
+}
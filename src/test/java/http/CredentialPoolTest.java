@@ -0,0 +1,98 @@
+package http;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline tests of token scheduling, benching and header handling in {@link CredentialPool}.
+ */
+public class CredentialPoolTest {
+    private static final Map<String, String> NO_HEADERS = Map.of();
+
+    private static CredentialPool pool() {
+        return new CredentialPool(List.of("a", "b"));
+    }
+
+    private static void release(CredentialPool pool, CredentialPool.Credential credential, int status, Map<String, String> headers) {
+        pool.release(credential, status, headers::get);
+    }
+
+    @Test
+    public void testOwnsOnlyItsOwnTokens() {
+        CredentialPool pool = pool();
+        Assert.assertTrue(pool.isPooled());
+        Assert.assertTrue(pool.owns("Bearer a"));
+        Assert.assertTrue(pool.owns("token b"));
+        Assert.assertFalse(pool.owns("Bearer c"));
+        Assert.assertFalse(pool.owns(null));
+        Assert.assertFalse(new CredentialPool(List.of("a")).isPooled());
+        Assert.assertEquals(new CredentialPool(List.of("b", "a")).scopeId(), pool.scopeId());
+    }
+
+    @Test
+    public void testPrefersMostRemainingQuota() {
+        CredentialPool pool = pool();
+        CredentialPool.Credential first = pool.acquire();
+        CredentialPool.Credential second = pool.acquire();
+        Assert.assertNotEquals(first.token(), second.token(), "unknown quota is probed on every token");
+        release(pool, first, 200, Map.of("X-RateLimit-Remaining", "10"));
+        release(pool, second, 200, Map.of("X-RateLimit-Remaining", "500"));
+        Assert.assertEquals(pool.acquire().token(), second.token());
+    }
+
+    @Test
+    public void testBenchesExhaustedTokenUntilReset() {
+        CredentialPool pool = pool();
+        CredentialPool.Credential exhausted = pool.acquire();
+        long reset = System.currentTimeMillis() / 1000 + 3600;
+        release(pool, exhausted, 200, Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(reset)));
+        for (int i = 0; i < 3; i++) {
+            CredentialPool.Credential other = pool.acquire();
+            Assert.assertNotEquals(other.token(), exhausted.token());
+            release(pool, other, 200, NO_HEADERS);
+        }
+        Assert.assertTrue(pool.summary().contains("(benched)"), pool.summary());
+    }
+
+    @Test
+    public void testRetryAfterBenchesButPlainForbiddenDoesNot() {
+        CredentialPool pool = pool();
+        CredentialPool.Credential forbidden = pool.acquire();
+        release(pool, forbidden, 403, NO_HEADERS);
+        Assert.assertFalse(pool.summary().contains("(benched)"), "a permission 403 keeps the token in rotation");
+
+        CredentialPool.Credential limited = pool.acquire();
+        release(pool, limited, 403, Map.of("Retry-After", "60"));
+        Assert.assertEquals(pool.summary().split("\\(benched\\)", -1).length - 1, 1);
+    }
+
+    @Test
+    public void testMalformedHeadersStillReturnTheToken() {
+        CredentialPool pool = pool();
+        CredentialPool.Credential credential = pool.acquire();
+        release(pool, credential, 429, Map.of("X-RateLimit-Remaining", "n/a", "X-RateLimit-Reset", "soon",
+                "Retry-After", "Wed, 21 Oct 2026 07:28:00 GMT"));
+        Assert.assertTrue(pool.summary().contains("(benched)"), "an unparseable Retry-After gets the default backoff");
+        CredentialPool.Credential other = pool.acquire();
+        Assert.assertNotEquals(other.token(), credential.token());
+        pool.release(other, 0, name -> null);
+    }
+
+    @Test
+    public void testWaitForBenchedTokensStopsAtDeadline() {
+        CredentialPool pool = new CredentialPool(List.of("a"));
+        release(pool, pool.acquire(), 429, NO_HEADERS);
+        Deadline deadline = Deadline.start("testWaitForBenchedTokensStopsAtDeadline", Duration.ofMillis(100));
+        Deadline.set(deadline);
+        try {
+            Assert.assertThrows(DeadlineExceededException.class, pool::acquire);
+        } finally {
+            Deadline.clear();
+            deadline.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package listeners;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.Config;
+
+import java.nio.file.Paths;
+
+/**
+ * Installs a {@link BatchingResultsWriter} as the Allure lifecycle writer and flushes it when a
+ * suite finishes and at JVM shutdown.
+ * Registered through META-INF/services rather than {@code @Listeners}: test-classes come first on
+ * the classpath, so TestNG instantiates this before allure-testng's own service-loaded listener,
+ * which captures {@link Allure#getLifecycle()} in its constructor.
+ */
+public class AllureBatchingInstaller implements ISuiteListener {
+    private static final BatchingResultsWriter WRITER = new BatchingResultsWriter(
+            Paths.get(System.getProperty("allure.results.directory", "allure-results")),
+            Config.getAllureBatchSize(),
+            Config.getAllureMaxStepNameChars(),
+            Config.getAllureMaxInlineAttachmentBytes());
+
+    static {
+        Allure.setLifecycle(new AllureLifecycle(WRITER));
+        Runtime.getRuntime().addShutdownHook(new Thread(WRITER::flush, "allure-results-flush"));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        WRITER.flush();
+    }
+}
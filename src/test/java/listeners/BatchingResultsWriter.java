@@ -0,0 +1,159 @@
+package listeners;
+
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allure results writer that buffers results, containers and small attachments in memory and
+ * hands them to a {@link FileSystemResultsWriter} in batches on background threads.
+ * Step names longer than the configured limit are truncated and their full text is written as a
+ * text attachment of that step; attachments above the inline limit are streamed straight to disk
+ * instead of being buffered. Call {@link #flush()} to wait until everything queued is on disk.
+ */
+public class BatchingResultsWriter implements AllureResultsWriter {
+    private static final long FLUSH_INTERVAL_MS = 2000;
+
+    private final FileSystemResultsWriter delegate;
+    private final int batchSize;
+    private final int maxStepNameChars;
+    private final int maxInlineAttachmentBytes;
+    private final List<Runnable> pending = new ArrayList<>();
+    private final Queue<Future<?>> inFlight = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService executor;
+
+    public BatchingResultsWriter(Path directory, int batchSize, int maxStepNameChars, int maxInlineAttachmentBytes) {
+        this.delegate = new FileSystemResultsWriter(directory);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxStepNameChars = maxStepNameChars;
+        this.maxInlineAttachmentBytes = maxInlineAttachmentBytes;
+        this.executor = Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "allure-results-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::submitBatch, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        externalizeLongNames(testResult.getSteps());
+        enqueue(() -> delegate.write(testResult));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        enqueue(() -> delegate.write(testResultContainer));
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        byte[] head;
+        try {
+            head = attachment.readNBytes(maxInlineAttachmentBytes + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (head.length <= maxInlineAttachmentBytes) {
+            enqueue(() -> delegate.write(source, new ByteArrayInputStream(head)));
+        } else {
+            delegate.write(source, new SequenceInputStream(new ByteArrayInputStream(head), attachment));
+        }
+    }
+
+    /**
+     * Submits whatever is buffered and blocks until every submitted batch has been written.
+     */
+    public void flush() {
+        submitBatch();
+        Future<?> batch;
+        while ((batch = inFlight.poll()) != null) {
+            if (!await(batch)) {
+                return;
+            }
+        }
+    }
+
+    private void enqueue(Runnable write) {
+        boolean full;
+        synchronized (pending) {
+            pending.add(write);
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            submitBatch();
+        }
+    }
+
+    private void submitBatch() {
+        List<Runnable> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        // finished batches are dropped here, so their failures are reported here too
+        for (Iterator<Future<?>> batches = inFlight.iterator(); batches.hasNext(); ) {
+            Future<?> done = batches.next();
+            if (done.isDone()) {
+                batches.remove();
+                await(done);
+            }
+        }
+        inFlight.add(executor.submit(() -> batch.forEach(Runnable::run)));
+    }
+
+    // waits for one batch and reports a failed write; false when interrupted
+    private static boolean await(Future<?> batch) {
+        try {
+            batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("Failed to write Allure results: " + e.getCause());
+        }
+        return true;
+    }
+
+    private void externalizeLongNames(List<StepResult> steps) {
+        if (steps == null) {
+            return;
+        }
+        for (StepResult step : steps) {
+            String name = step.getName();
+            if (name != null && name.length() > maxStepNameChars) {
+                String source = UUID.randomUUID() + "-attachment.txt";
+                byte[] text = name.getBytes(StandardCharsets.UTF_8);
+                enqueue(() -> delegate.write(source, new ByteArrayInputStream(text)));
+                step.getAttachments().add(new Attachment().setName("Full step text").setSource(source).setType("text/plain"));
+                step.setName(name.substring(0, maxStepNameChars) + "... (" + name.length() + " chars, see attachment)");
+            }
+            externalizeLongNames(step.getSteps());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package listeners;
+
+import http.CircuitBreakers;
+import http.CircuitOpenException;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import utils.Config;
+
+/**
+ * Turns a test that failed because a circuit was open into a skip (GITHUB_CIRCUIT_OPEN_ACTION=skip,
+ * the default) or leaves it failed (=fail). Either way {@link RetryAnalyzer} does not retry it.
+ */
+public class CircuitBreakerListener implements IInvokedMethodListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            CircuitBreakers.clearRejection();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        CircuitOpenException rejection = CircuitBreakers.lastRejection();
+        if (!method.isTestMethod() || rejection == null || testResult.getStatus() != ITestResult.FAILURE) {
+            return;
+        }
+        if ("skip".equalsIgnoreCase(Config.getCircuitOpenAction())) {
+            testResult.setStatus(ITestResult.SKIP);
+            testResult.setThrowable(new SkipException(rejection.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package listeners;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transitive class dependencies read from class file constant pools. Only classes loaded from a
+ * directory (target/classes, target/test-classes) are followed; library classes are leaves and
+ * are left out of the result. So are the suite infrastructure packages (listeners, http, utils,
+ * webhooks, faults): every test reaches them through the suite listeners and the shared specs, so
+ * a change to one of them runs every test instead (see {@link ImpactSelector}).
+ */
+final class ClassDependencies {
+    private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([\\w/$]+)[;<]");
+    private static final String[] INFRASTRUCTURE = {"listeners.", "http.", "utils.", "webhooks.", "faults."};
+
+    private final ClassLoader loader;
+    private final Map<String, Set<String>> direct = new HashMap<>();
+
+    ClassDependencies(ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Binary names (nested classes included) of every project class {@code className} reaches.
+     */
+    Set<String> closure(String className) {
+        Set<String> seen = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(className);
+        while (!queue.isEmpty()) {
+            String next = queue.poll();
+            Set<String> references = direct(next);
+            if (references != null && seen.add(next)) {
+                queue.addAll(references);
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Project classes referenced by one class file, or null when it is not a project class.
+     */
+    private Set<String> direct(String className) {
+        if (direct.containsKey(className)) {
+            return direct.get(className);
+        }
+        Set<String> references = null;
+        URL url = loader.getResource(className.replace('.', '/') + ".class");
+        if (url != null && "file".equals(url.getProtocol())) {
+            try (InputStream in = url.openStream()) {
+                references = new HashSet<>();
+                for (String name : referencedNames(new DataInputStream(in))) {
+                    String binaryName = name.replace('/', '.');
+                    if (!binaryName.equals(className) && !binaryName.startsWith("java.") && !isInfrastructure(binaryName)) {
+                        references.add(binaryName);
+                    }
+                }
+            } catch (IOException e) {
+                references = null;
+            }
+        }
+        direct.put(className, references);
+        return references;
+    }
+
+    static boolean isInfrastructure(String className) {
+        for (String prefix : INFRASTRUCTURE) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> referencedNames(DataInputStream in) throws IOException {
+        in.readInt();            // magic
+        in.readUnsignedShort();  // minor
+        in.readUnsignedShort();  // major
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classIndexes = new int[count];
+        int classes = 0;
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:
+                    classIndexes[classes++] = in.readUnsignedShort();
+                    break;
+                case 8: case 16: case 19: case 20:
+                    in.readUnsignedShort();
+                    break;
+                case 15:
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.readInt();
+                    break;
+                case 5: case 6:
+                    in.readLong();
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        Set<String> names = new HashSet<>();
+        for (int c = 0; c < classes; c++) {
+            String name = utf8[classIndexes[c]];
+            if (name != null && !name.startsWith("[")) {
+                names.add(name);
+            }
+        }
+        // field and method descriptors and generic signatures name types without a Class entry
+        for (String value : utf8) {
+            if (value != null && value.indexOf('L') >= 0) {
+                Matcher matcher = DESCRIPTOR_TYPE.matcher(value);
+                while (matcher.find()) {
+                    names.add(matcher.group(1));
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,74 @@
+package listeners;
+
+import http.Deadline;
+import http.DeadlineExceededException;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.Config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives each test one {@link Deadline} of GITHUB_TEST_DEADLINE_SECONDS that all of its attempts
+ * share, so retries do not restart the clock. A failed attempt that ran out of time is reported
+ * with a {@link DeadlineExceededException} in place of the assertion error the test body raised,
+ * and {@link RetryAnalyzer} does not retry it.
+ */
+public class DeadlineListener implements IInvokedMethodListener, ITestListener {
+    private final Map<String, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            Deadline.set(deadlines.computeIfAbsent(SuiteMetricsListener.testId(testResult),
+                    id -> Deadline.start(id, Duration.ofSeconds(Config.getTestDeadlineSeconds()))));
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Deadline deadline = Deadline.current();
+        if (!method.isTestMethod() || deadline == null || testResult.getStatus() != ITestResult.FAILURE) {
+            return;
+        }
+        if (deadline.wasExceeded() && !(testResult.getThrowable() instanceof DeadlineExceededException)) {
+            testResult.setThrowable(deadline.exceeded(null, testResult.getThrowable()));
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        finish(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        finish(result);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        if (!result.wasRetried()) {
+            finish(result);
+        }
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        deadlines.values().forEach(Deadline::close);
+        deadlines.clear();
+    }
+
+    private void finish(ITestResult result) {
+        Deadline deadline = deadlines.remove(SuiteMetricsListener.testId(result));
+        if (deadline != null) {
+            deadline.close();
+        }
+        Deadline.clear();
+    }
+}
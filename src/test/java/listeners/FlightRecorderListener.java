@@ -0,0 +1,233 @@
+package listeners;
+
+import io.qameta.allure.Allure;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import utils.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records each selected test with JDK Flight Recorder. GITHUB_JFR selects the tests: {@code all},
+ * or a comma-separated list of method names or {@code Class#method} ids. The recording uses the
+ * JDK "profile" settings without allocation and old-object sampling, is capped at GITHUB_JFR_MAX_MB
+ * and covers only the test's own invocation. It includes the {@code github.HttpCall} and
+ * {@code github.JsonParse} events, and is attached to the Allure result with a text summary of
+ * where the samples fell (network, JSON, logging, Allure), the hottest methods and the calls per
+ * endpoint.
+ * <p>
+ * Flight Recorder is JVM-wide. Samples count when taken on the test's own thread or on a pool
+ * thread (HTTP client workers, the common pool, the suite's daemon pools); runner threads of other
+ * tests are left out. Pool threads are shared, so their samples and the {@code github.HttpCall}
+ * events belong to the recorded test alone only when tests run one at a time, which is how the
+ * suites are configured. {@code github.JsonParse} covers {@code Projection} and
+ * {@code ResponseDocument} parses; RestAssured's {@code jsonPath()}, {@code as()} and body path
+ * matchers show up in the json sample area but not as events.
+ */
+public class FlightRecorderListener implements IInvokedMethodListener {
+    private static final int HOT_METHODS = 15;
+    private static final Map<String, List<String>> AREAS = new LinkedHashMap<>();
+
+    static {
+        AREAS.put("network", Arrays.asList("java.net.", "sun.net.", "sun.nio.ch.", "jdk.internal.net.", "sun.security.ssl.",
+                "javax.net.ssl.", "org.apache.http."));
+        AREAS.put("json", Arrays.asList("com.fasterxml.jackson.", "io.restassured.path.json.", "io.restassured.internal.path.json.",
+                "groovy.json."));
+        AREAS.put("logging", Arrays.asList("io.restassured.internal.print.", "io.restassured.filter.log.", "java.io.PrintStream",
+                "org.slf4j."));
+        AREAS.put("allure", Arrays.asList("io.qameta.allure."));
+    }
+
+    private final ThreadLocal<Recording> recording = new ThreadLocal<>();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod() || !selected(testResult) || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        try {
+            Recording jfr = new Recording(Configuration.getConfiguration("profile"));
+            jfr.setName(SuiteMetricsListener.testId(testResult));
+            jfr.setMaxSize(Config.getJfrMaxBytes());
+            jfr.setToDisk(true);
+            jfr.disable("jdk.ObjectAllocationInNewTLAB");
+            jfr.disable("jdk.ObjectAllocationOutsideTLAB");
+            jfr.disable("jdk.ObjectAllocationSample");
+            jfr.disable("jdk.OldObjectSample");
+            jfr.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+            jfr.enable("jdk.NativeMethodSample").withPeriod(Duration.ofMillis(10));
+            jfr.enable("github.HttpCall").withoutStackTrace();
+            jfr.enable("github.JsonParse").withoutStackTrace();
+            jfr.start();
+            recording.set(jfr);
+        } catch (IOException | ParseException e) {
+            System.err.println("Could not start Flight Recorder: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Recording jfr = recording.get();
+        if (jfr == null || !method.isTestMethod()) {
+            return;
+        }
+        recording.remove();
+        Path file = null;
+        try {
+            jfr.stop();
+            file = Files.createTempFile("jfr-", ".jfr");
+            jfr.dump(file);
+            String summary = summarize(file, Duration.between(jfr.getStartTime(), jfr.getStopTime()).toMillis(),
+                    Thread.currentThread().getId());
+            Allure.addAttachment("JFR summary", "text/plain", summary, ".txt");
+            try (InputStream in = Files.newInputStream(file)) {
+                Allure.addAttachment(jfr.getName() + ".jfr", "application/octet-stream", in, ".jfr");
+            }
+            System.out.println("JFR " + jfr.getName() + ": " + summary.substring(0, summary.indexOf('\n')));
+        } catch (IOException e) {
+            System.err.println("Could not save Flight Recorder recording: " + e.getMessage());
+        } finally {
+            jfr.close();
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // temp file, removed on the next clean-up of the temp directory
+                }
+            }
+        }
+    }
+
+    private static boolean selected(ITestResult result) {
+        String tests = Config.getJfrTests();
+        if (tests == null || tests.isEmpty()) {
+            return false;
+        }
+        if ("all".equalsIgnoreCase(tests)) {
+            return true;
+        }
+        String name = result.getMethod().getMethodName();
+        String id = result.getTestClass().getRealClass().getSimpleName() + "#" + name;
+        for (String test : tests.split(",")) {
+            if (test.trim().equals(name) || test.trim().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String summarize(Path file, long recordedMillis, long testThreadId) throws IOException {
+        Map<String, Integer> areas = new LinkedHashMap<>();
+        AREAS.keySet().forEach(area -> areas.put(area, 0));
+        areas.put("other", 0);
+        Map<String, Integer> hot = new HashMap<>();
+        Map<String, long[]> endpoints = new TreeMap<>();
+        long[] parses = new long[3];
+        int samples = 0;
+        int onTestThread = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String type = event.getEventType().getName();
+            if ("jdk.ExecutionSample".equals(type) || "jdk.NativeMethodSample".equals(type)) {
+                RecordedStackTrace stack = event.getStackTrace();
+                RecordedThread thread = event.getThread("sampledThread");
+                if (stack == null || stack.getFrames().isEmpty() || isHarnessThread(thread)
+                        || isOtherTestThread(thread, testThreadId)) {
+                    continue;
+                }
+                samples++;
+                onTestThread += thread != null && thread.getJavaThreadId() == testThreadId ? 1 : 0;
+                areas.merge(area(stack.getFrames()), 1, Integer::sum);
+                hot.merge(frameName(stack.getFrames().get(0)), 1, Integer::sum);
+            } else if ("github.HttpCall".equals(type)) {
+                // count, total ms, max ms, bytes, failures (no response or >= 400)
+                long[] totals = endpoints.computeIfAbsent(event.getString("method") + " " + event.getString("endpoint"),
+                        key -> new long[5]);
+                long millis = event.getDuration().toMillis();
+                int status = event.getInt("status");
+                totals[0]++;
+                totals[1] += millis;
+                totals[2] = Math.max(totals[2], millis);
+                totals[3] += event.getLong("bytes");
+                totals[4] += status <= 0 || status >= 400 ? 1 : 0;
+            } else if ("github.JsonParse".equals(type)) {
+                parses[0]++;
+                parses[1] += event.getDuration().toMillis();
+                parses[2] += event.getLong("bytes");
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append(recordedMillis).append(" ms recorded, ").append(samples).append(" stack samples (")
+                .append(onTestThread).append(" on the test thread), ")
+                .append(endpoints.values().stream().mapToLong(totals -> totals[0]).sum()).append(" HTTP calls, ")
+                .append(parses[0]).append(" JSON parses\n");
+        out.append("\nSamples by area (first matching frame from the top):\n");
+        for (Map.Entry<String, Integer> area : areas.entrySet()) {
+            out.append(String.format("  %-8s %5d  %3d%%%n", area.getKey(), area.getValue(),
+                    samples == 0 ? 0 : area.getValue() * 100 / samples));
+        }
+        out.append("\nHot methods (top frame):\n");
+        hot.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
+                .limit(HOT_METHODS)
+                .forEach(entry -> out.append(String.format("  %5d  %s%n", entry.getValue(), entry.getKey())));
+        out.append("\nHTTP calls by endpoint (calls, total ms, max ms, bytes, failed):\n");
+        endpoints.forEach((endpoint, totals) -> out.append(String.format("  %3d %7d %6d %10d %3d  %s%n",
+                totals[0], totals[1], totals[2], totals[3], totals[4], endpoint)));
+        out.append(String.format("%nProjection/ResponseDocument parses: %d, %d ms, %d bytes%n", parses[0], parses[1], parses[2]));
+        return out.toString();
+    }
+
+    // Surefire's command and ping threads and Flight Recorder's own threads are not the test's work
+    private static boolean isHarnessThread(RecordedThread thread) {
+        String name = thread == null ? null : thread.getJavaName();
+        return name != null && (name.startsWith("surefire-") || name.startsWith("JFR "));
+    }
+
+    // runners of other tests: parallel TestNG workers, or main while this test runs on one of those
+    private static boolean isOtherTestThread(RecordedThread thread, long testThreadId) {
+        if (thread == null || thread.getJavaThreadId() == testThreadId) {
+            return false;
+        }
+        String name = thread.getJavaName();
+        return name != null && (name.equals("main") || name.startsWith("TestNG"));
+    }
+
+    private static String area(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod() == null ? "" : frame.getMethod().getType().getName();
+            for (Map.Entry<String, List<String>> area : AREAS.entrySet()) {
+                for (String prefix : area.getValue()) {
+                    if (type.startsWith(prefix)) {
+                        return area.getKey();
+                    }
+                }
+            }
+        }
+        return "other";
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        return frame.getMethod() == null ? "?" : frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,207 @@
+package listeners;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import utils.Config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs only the tests affected by the changes since GITHUB_IMPACT_BASE (any git ref); without it
+ * every test runs. A test is affected when:
+ * <ul>
+ *   <li>its own class, or a project class it reaches through the constant pool (pojo, api, contracts, ...),
+ *       changed; this is decided per test class, so every method of such a class is selected;</li>
+ *   <li>a changed {@code GitHubRoute} constant is one of the routes in its recorded trace (see {@link ImpactTraces}),
+ *       or it has no trace yet;</li>
+ *   <li>a build or resource file, or a class in the infrastructure packages (listeners, http, utils,
+ *       webhooks, faults) changed, since every test runs through those.</li>
+ * </ul>
+ * Methods a selected test depends on are kept so dependency chains still run.
+ */
+public class ImpactSelector implements IMethodInterceptor {
+    private static final String ROUTE_CLASS = "api.GitHubRoute";
+    private static final Pattern JAVA_SOURCE = Pattern.compile("src/(?:main|test)/java/(.+)\\.java");
+    private static final Pattern ROUTE_CONSTANT = Pattern.compile("^[+-]\\s*([A-Z][A-Z0-9_]*)\\(\"([^\"]*)\"");
+    private static final Pattern NO_IMPACT = Pattern.compile(".*\\.md|\\.gitignore|requests\\.jsonl");
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        String base = Config.getImpactBase();
+        if (base == null || base.isEmpty()) {
+            return methods;
+        }
+        Change change;
+        Map<String, Set<String>> traces;
+        try {
+            change = Change.since(base);
+            traces = ImpactTraces.read(Paths.get(Config.getImpactTraceFile()));
+        } catch (IOException e) {
+            System.err.println("Impact selection disabled, running all tests: " + e.getMessage());
+            return methods;
+        }
+        if (change.everything) {
+            System.out.println("Impact selection: build, resource or infrastructure files changed since " + base + ", running all tests");
+            return methods;
+        }
+
+        ClassDependencies dependencies = new ClassDependencies(getClass().getClassLoader());
+        Map<String, Boolean> classAffected = new HashMap<>();
+        Set<String> selected = new HashSet<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            String testClass = method.getRealClass().getName();
+            boolean affected = classAffected.computeIfAbsent(testClass,
+                    name -> touchesChangedClass(dependencies.closure(name), change.classes));
+            if (affected || routesAffected(traces.get(method.getQualifiedName()), change.routes)) {
+                selected.add(method.getQualifiedName());
+            }
+        }
+        addDependencies(methods, selected);
+
+        List<IMethodInstance> result = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            if (selected.contains(instance.getMethod().getQualifiedName())) {
+                result.add(instance);
+            }
+        }
+        System.out.println("Impact selection against " + base + ": running " + result.size() + " of " + methods.size() + " tests");
+        return result;
+    }
+
+    private static boolean touchesChangedClass(Set<String> closure, Set<String> changedClasses) {
+        for (String name : closure) {
+            int nested = name.indexOf('$');
+            String topLevel = nested < 0 ? name : name.substring(0, nested);
+            if (changedClasses.contains(topLevel)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean routesAffected(Set<String> trace, Set<String> changedRoutes) {
+        if (changedRoutes.isEmpty()) {
+            return false;
+        }
+        if (trace == null) {
+            return true;
+        }
+        for (String endpoint : trace) {
+            if (changedRoutes.contains(endpoint.substring(endpoint.indexOf(' ') + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addDependencies(List<IMethodInstance> methods, Set<String> selected) {
+        Map<String, ITestNGMethod> byName = new HashMap<>();
+        methods.forEach(instance -> byName.put(instance.getMethod().getQualifiedName(), instance.getMethod()));
+        List<String> pending = new ArrayList<>(selected);
+        while (!pending.isEmpty()) {
+            ITestNGMethod method = byName.get(pending.remove(pending.size() - 1));
+            if (method == null) {
+                continue;
+            }
+            for (String upstream : method.getMethodsDependedUpon()) {
+                if (selected.add(upstream)) {
+                    pending.add(upstream);
+                }
+            }
+        }
+    }
+
+    /**
+     * What {@code git diff -U0 base} touched: top-level class names, the templates of changed
+     * GitHubRoute constants, or "everything" for files that cannot be narrowed down.
+     */
+    static final class Change {
+        final Set<String> classes = new HashSet<>();
+        final Set<String> routes = new HashSet<>();
+        boolean everything;
+
+        static Change since(String base) throws IOException {
+            Process git = new ProcessBuilder("git", "diff", "-U0", "--no-color", base, "--")
+                    .redirectErrorStream(true)
+                    .start();
+            Change change = new Change();
+            List<String> output = new ArrayList<>();
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                String file = null;
+                boolean routeLinesOnly = true;
+                String line;
+                while ((line = out.readLine()) != null) {
+                    output.add(line);
+                    if (line.startsWith("diff --git ")) {
+                        change.closeRouteFile(file, routeLinesOnly);
+                        file = line.substring(line.lastIndexOf(" b/") + 3);
+                        routeLinesOnly = true;
+                        change.addFile(file);
+                    } else if (ROUTE_CLASS.equals(className(file)) && isChangedLine(line)) {
+                        Matcher constant = ROUTE_CONSTANT.matcher(line);
+                        if (constant.find()) {
+                            change.routes.add(constant.group(2));
+                        } else if (!line.substring(1).trim().isEmpty()) {
+                            routeLinesOnly = false;
+                        }
+                    }
+                }
+                change.closeRouteFile(file, routeLinesOnly);
+            }
+            try {
+                if (git.waitFor() != 0) {
+                    throw new IOException("git diff " + base + " failed: " + String.join(" ", output));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for git diff", e);
+            }
+            return change;
+        }
+
+        private void addFile(String file) {
+            String className = className(file);
+            if (className != null && ClassDependencies.isInfrastructure(className)) {
+                everything = true;
+            } else if (className != null) {
+                classes.add(className);
+            } else if (!NO_IMPACT.matcher(file).matches()) {
+                everything = true;
+            }
+        }
+
+        // edits to GitHubRoute beyond its constant lines fall back to a plain class change
+        private void closeRouteFile(String file, boolean routeLinesOnly) {
+            if (ROUTE_CLASS.equals(className(file)) && routeLinesOnly) {
+                classes.remove(ROUTE_CLASS);
+            }
+        }
+
+        private static boolean isChangedLine(String line) {
+            return (line.startsWith("+") && !line.startsWith("+++")) || (line.startsWith("-") && !line.startsWith("---"));
+        }
+
+        private static String className(String file) {
+            if (file == null) {
+                return null;
+            }
+            Matcher source = JAVA_SOURCE.matcher(file);
+            return source.matches() ? source.group(1).replace('/', '.') : null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package listeners;
+
+import api.GitHubRoute;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Tab-separated map from test method (qualified name) to the routes it called in its last
+ * recorded run, one "test\tMETHOD /route/{template}" line per pair. Written by
+ * {@link SuiteMetricsListener}, read by {@link ImpactSelector}.
+ */
+final class ImpactTraces {
+    static final String HEADER = "test\tendpoint";
+
+    private ImpactTraces() {
+    }
+
+    /**
+     * "GET /repos/octo/hello/branches/{id}" becomes "GET /repos/{owner}/{repo}/branches/{branch}";
+     * paths that match no known route are kept as they are.
+     */
+    static String routeKey(String endpoint) {
+        int space = endpoint.indexOf(' ');
+        GitHubRoute route = GitHubRoute.match(endpoint.substring(space + 1));
+        return route == null ? endpoint : endpoint.substring(0, space + 1) + route.template();
+    }
+
+    static Map<String, Set<String>> read(Path file) throws IOException {
+        Map<String, Set<String>> traces = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return traces;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(HEADER)) {
+                continue;
+            }
+            String[] f = line.split("\t", 2);
+            Set<String> endpoints = traces.computeIfAbsent(f[0], test -> new TreeSet<>());
+            if (f.length > 1 && !f[1].isEmpty()) {
+                endpoints.add(f[1]);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * Replaces the traces of the tests that ran and keeps those of tests that did not.
+     */
+    static synchronized void update(Path file, Map<String, Set<String>> latest) throws IOException {
+        Map<String, Set<String>> traces = read(file);
+        traces.putAll(latest);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (Map.Entry<String, Set<String>> entry : traces.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    // recorded without any HTTP call, which is different from never recorded
+                    out.write(entry.getKey() + "\t");
+                    out.newLine();
+                }
+                for (String endpoint : entry.getValue()) {
+                    out.write(entry.getKey() + "\t" + endpoint);
+                    out.newLine();
+                }
+            }
+        }
+    }
+}
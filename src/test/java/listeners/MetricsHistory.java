@@ -0,0 +1,195 @@
+package listeners;
+
+import utils.Config;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only, tab-separated test history (one row per test per run) and the queries over it.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes listeners.MetricsHistory slowest [count]
+ * java -cp target/test-classes:target/classes listeners.MetricsHistory regressions [lastRuns] [thresholdPercent]
+ * java -cp target/test-classes:target/classes listeners.MetricsHistory flaky [lastRuns]
+ * </pre>
+ */
+public class MetricsHistory {
+    static final String HEADER = "run_id\ttest\tstatus\tduration_ms\ttotal_ms\tretries\thttp_calls\thttp_bytes\tjson_parses";
+
+    static final class Row {
+        final long runId;
+        final String testId;
+        String status = "SKIP";
+        long durationMillis;
+        long totalMillis;
+        int retries;
+        long httpCalls;
+        long httpBytes;
+        long jsonParses;
+
+        Row(long runId, String testId) {
+            this.runId = runId;
+            this.testId = testId;
+        }
+
+        String toLine() {
+            return runId + "\t" + testId + "\t" + status + "\t" + durationMillis + "\t" + totalMillis + "\t"
+                    + retries + "\t" + httpCalls + "\t" + httpBytes + "\t" + jsonParses;
+        }
+
+        static Row parse(String line) {
+            String[] f = line.split("\t");
+            Row row = new Row(Long.parseLong(f[0]), f[1]);
+            row.status = f[2];
+            row.durationMillis = Long.parseLong(f[3]);
+            row.totalMillis = Long.parseLong(f[4]);
+            row.retries = Integer.parseInt(f[5]);
+            row.httpCalls = Long.parseLong(f[6]);
+            row.httpBytes = Long.parseLong(f[7]);
+            // rows written before parse counting have no json_parses column
+            row.jsonParses = f.length > 8 ? Long.parseLong(f[8]) : 0;
+            return row;
+        }
+    }
+
+    static synchronized void append(Path file, Collection<Row> rows) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        boolean fresh = !Files.exists(file);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (fresh) {
+                out.write(HEADER);
+                out.newLine();
+            }
+            for (Row row : rows) {
+                out.write(row.toLine());
+                out.newLine();
+            }
+        }
+    }
+
+    static List<Row> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isEmpty() && !line.startsWith("run_id"))
+                .map(Row::parse)
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Row> rows = read(Paths.get(Config.getMetricsHistoryFile()));
+        String command = args.length > 0 ? args[0] : "slowest";
+        if (rows.isEmpty()) {
+            System.out.println("No history in " + Config.getMetricsHistoryFile());
+            return;
+        }
+        switch (command) {
+            case "slowest":
+                slowest(rows, args.length > 1 ? Integer.parseInt(args[1]) : 10);
+                break;
+            case "regressions":
+                regressions(rows, args.length > 1 ? Integer.parseInt(args[1]) : 5,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 50);
+                break;
+            case "flaky":
+                flaky(rows, args.length > 1 ? Integer.parseInt(args[1]) : 10);
+                break;
+            default:
+                System.out.println("Usage: MetricsHistory slowest [count] | regressions [lastRuns] [thresholdPercent] | flaky [lastRuns]");
+        }
+    }
+
+    private static void slowest(List<Row> rows, int count) {
+        long lastRun = lastRuns(rows, 1).last();
+        System.out.println("Slowest tests in run " + lastRun + ":");
+        rows.stream()
+                .filter(r -> r.runId == lastRun)
+                .sorted(Comparator.comparingLong((Row r) -> r.totalMillis).reversed())
+                .limit(count)
+                .forEach(r -> System.out.printf("  %8d ms  %-6s %s (calls: %d, bytes: %d, parses: %d)%n",
+                        r.totalMillis, r.status, r.testId, r.httpCalls, r.httpBytes, r.jsonParses));
+    }
+
+    /**
+     * Compares the latest run against the median of the previous {@code lastRuns} runs.
+     */
+    private static void regressions(List<Row> rows, int lastRuns, int thresholdPercent) {
+        TreeSet<Long> runs = lastRuns(rows, lastRuns + 1);
+        long latest = runs.last();
+        Map<String, List<Long>> baseline = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (runs.contains(row.runId) && row.runId != latest && "PASS".equals(row.status)) {
+                baseline.computeIfAbsent(row.testId, id -> new ArrayList<>()).add(row.durationMillis);
+            }
+        }
+        System.out.println("Duration regressions in run " + latest + " (> " + thresholdPercent + "% over median of "
+                + (runs.size() - 1) + " previous runs):");
+        boolean any = false;
+        for (Row row : rows) {
+            List<Long> previous = baseline.get(row.testId);
+            if (row.runId != latest || previous == null || !"PASS".equals(row.status)) {
+                continue;
+            }
+            long median = median(previous);
+            // Ignore sub-100ms noise on fast tests
+            if (row.durationMillis - median > 100 && row.durationMillis * 100 > median * (100L + thresholdPercent)) {
+                any = true;
+                System.out.printf("  %s: %d ms (median %d ms, +%d%%)%n", row.testId, row.durationMillis, median,
+                        median == 0 ? 100 : (row.durationMillis - median) * 100 / median);
+            }
+        }
+        if (!any) {
+            System.out.println("  none");
+        }
+    }
+
+    private static void flaky(List<Row> rows, int lastRuns) {
+        TreeSet<Long> runs = lastRuns(rows, lastRuns);
+        Map<String, int[]> hotspots = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (runs.contains(row.runId)) {
+                int[] counts = hotspots.computeIfAbsent(row.testId, id -> new int[3]);
+                counts[0] += row.retries;
+                counts[1] += row.retries > 0 ? 1 : 0;
+                counts[2]++;
+            }
+        }
+        System.out.println("Retry hotspots over the last " + runs.size() + " runs (retries, runs with retries / runs):");
+        hotspots.entrySet().stream()
+                .filter(e -> e.getValue()[0] > 0)
+                .sorted((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]))
+                .forEach(e -> System.out.printf("  %4d  %d/%d  %s%n", e.getValue()[0], e.getValue()[1], e.getValue()[2], e.getKey()));
+    }
+
+    private static TreeSet<Long> lastRuns(List<Row> rows, int count) {
+        TreeSet<Long> all = rows.stream().map(r -> r.runId).collect(Collectors.toCollection(TreeSet::new));
+        while (all.size() > count) {
+            all.pollFirst();
+        }
+        return all;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+}
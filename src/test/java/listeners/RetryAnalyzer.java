@@ -1,5 +1,7 @@
 package listeners;
 
+import http.CircuitBreakers;
+import http.Deadline;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
@@ -9,6 +11,14 @@ public class RetryAnalyzer implements IRetryAnalyzer {
 
     @Override
     public boolean retry(ITestResult result) {
+        if (CircuitBreakers.lastRejection() != null) {
+            System.out.println("Not retrying " + result.getName() + ": " + CircuitBreakers.lastRejection().getMessage());
+            return false;
+        }
+        if (Deadline.current() != null && Deadline.current().wasExceeded()) {
+            System.out.println("Not retrying " + result.getName() + ": its deadline has passed");
+            return false;
+        }
         if (retryCount < maxRetryCount) {
             System.out.println("Retrying " + result.getName() + " again, count: " + (retryCount + 1));
             retryCount++;
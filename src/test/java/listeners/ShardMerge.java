@@ -0,0 +1,154 @@
+package listeners;
+
+import utils.Config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Combines the outputs of sharded runs (see {@link ShardSelector}) into one report: Allure results
+ * are copied into one results directory, the last run of every shard is appended to the metrics
+ * history as a single run, the shards' request traces are merged into the trace file, and each
+ * shard's startup row is appended to the startup history.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes listeners.ShardMerge [shardsDir] [allureResultsDir]
+ * </pre>
+ * Defaults are {@code target/shards} (one {@code shard-N} directory per shard, as written by the
+ * {@code shard} Maven profile) and {@code target/allure-results}.
+ */
+public class ShardMerge {
+
+    public static void main(String[] args) throws IOException {
+        Path shardsDir = Paths.get(args.length > 0 ? args[0] : "target/shards");
+        Path allureDir = Paths.get(args.length > 1 ? args[1] : "target/allure-results");
+        List<Path> shards = new ArrayList<>();
+        if (Files.isDirectory(shardsDir)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(shardsDir, "shard-*")) {
+                dirs.forEach(shards::add);
+            }
+        }
+        if (shards.isEmpty()) {
+            System.out.println("No shard-* directories in " + shardsDir);
+            return;
+        }
+        shards.sort(null);
+
+        Files.createDirectories(allureDir);
+        List<MetricsHistory.Row> lastRuns = new ArrayList<>();
+        Map<String, Set<String>> traces = new TreeMap<>();
+        long runId = Long.MAX_VALUE;
+        int allureFiles = 0;
+        for (Path shard : shards) {
+            allureFiles += copyResults(shard.resolve("allure-results"), allureDir);
+            List<MetricsHistory.Row> rows = MetricsHistory.read(shard.resolve(fileName(Config.getMetricsHistoryFile())));
+            long last = rows.stream().mapToLong(row -> row.runId).max().orElse(-1);
+            long shardMillis = 0;
+            for (MetricsHistory.Row row : rows) {
+                if (row.runId == last) {
+                    lastRuns.add(row);
+                    shardMillis += row.totalMillis;
+                }
+            }
+            if (last >= 0) {
+                runId = Math.min(runId, last);
+            }
+            ImpactTraces.read(shard.resolve(fileName(Config.getImpactTraceFile())))
+                    .forEach((test, endpoints) -> traces.computeIfAbsent(test, t -> new TreeSet<>()).addAll(endpoints));
+            System.out.println("  " + shard.getFileName() + ": " + rows.stream().filter(row -> row.runId == last).count()
+                    + " tests, " + shardMillis + " ms");
+        }
+
+        // one run id for the whole sharded run, so history queries see it as a single run
+        List<MetricsHistory.Row> merged = new ArrayList<>();
+        Map<String, Integer> statuses = new TreeMap<>();
+        int retries = 0;
+        long calls = 0;
+        for (MetricsHistory.Row row : lastRuns) {
+            MetricsHistory.Row copy = new MetricsHistory.Row(runId, row.testId);
+            copy.status = row.status;
+            copy.durationMillis = row.durationMillis;
+            copy.totalMillis = row.totalMillis;
+            copy.retries = row.retries;
+            copy.httpCalls = row.httpCalls;
+            copy.httpBytes = row.httpBytes;
+            copy.jsonParses = row.jsonParses;
+            merged.add(copy);
+            statuses.merge(row.status, 1, Integer::sum);
+            retries += row.retries;
+            calls += row.httpCalls;
+        }
+        if (!merged.isEmpty()) {
+            MetricsHistory.append(Paths.get(Config.getMetricsHistoryFile()), merged);
+        }
+        if (!traces.isEmpty()) {
+            ImpactTraces.update(Paths.get(Config.getImpactTraceFile()), traces);
+        }
+        int startupRows = appendStartup(shards);
+        System.out.println("Merged " + shards.size() + " shards: " + merged.size() + " tests " + statuses + ", "
+                + retries + " retries, " + calls + " HTTP calls; " + allureFiles + " Allure files in " + allureDir + ", "
+                + startupRows + " startup rows");
+    }
+
+    private static int copyResults(Path from, Path to) throws IOException {
+        if (!Files.isDirectory(from)) {
+            return 0;
+        }
+        int copied = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(from)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    // result, container and attachment names are UUIDs, so shards never collide
+                    Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    copied++;
+                }
+            }
+        }
+        return copied;
+    }
+
+    // each shard is its own JVM, so its startup rows are kept as they are
+    private static int appendStartup(List<Path> shards) throws IOException {
+        Path shared = Paths.get(Config.getStartupHistoryFile());
+        List<String> lines = new ArrayList<>();
+        for (Path shard : shards) {
+            Path file = shard.resolve(fileName(Config.getStartupHistoryFile()));
+            if (Files.exists(file)) {
+                List<String> rows = Files.readAllLines(file, StandardCharsets.UTF_8);
+                // a shard that failed before writing its row leaves an empty file or just the header
+                String last = rows.isEmpty() ? "" : rows.get(rows.size() - 1);
+                if (!last.isEmpty() && !last.startsWith("run_id")) {
+                    lines.add(last);
+                }
+            }
+        }
+        int appended = lines.size();
+        if (appended == 0) {
+            return 0;
+        }
+        if (shared.getParent() != null) {
+            Files.createDirectories(shared.getParent());
+        }
+        if (!Files.exists(shared)) {
+            lines.add(0, StartupMetrics.HEADER);
+        }
+        Files.write(shared, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return appended;
+    }
+
+    private static String fileName(String sharedFile) {
+        return Paths.get(sharedFile).getFileName().toString();
+    }
+}
@@ -0,0 +1,212 @@
+package listeners;
+
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.Test;
+import utils.Config;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs shard GITHUB_SHARD_INDEX (0-based) of GITHUB_SHARD_COUNT. Every shard computes the same
+ * assignment, so together they run each test exactly once:
+ * <ul>
+ *   <li>methods linked by {@code dependsOnMethods} stay together as one unit;</li>
+ *   <li>units are assigned longest first to the least loaded shard, using their last total time
+ *       in the metrics history (the mean for unknown tests), ties broken by a stable name hash;</li>
+ *   <li>a data-provider method with no dependencies is kept on every shard and its rows are dealt
+ *       round robin instead, starting at a shard picked by the method's hash.</li>
+ * </ul>
+ * All shards must read the same history file, e.g. restored from the same CI cache. While sharded,
+ * {@link SuiteMetricsListener} writes history and traces under GITHUB_SHARD_DIR; {@link ShardMerge}
+ * combines the shards' outputs afterwards.
+ */
+public class ShardSelector implements IMethodInterceptor, IDataProviderInterceptor {
+    private static final long DEFAULT_COST_MILLIS = 1000;
+    private static final Set<String> SPLIT = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        int count = Config.getShardCount();
+        if (count <= 1) {
+            return methods;
+        }
+        int index = Config.getShardIndex();
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("GITHUB_SHARD_INDEX must be in 0.." + (count - 1) + ", got " + index);
+        }
+        Map<String, Long> costs = historicalCosts();
+        long unknownCost = costs.isEmpty() ? DEFAULT_COST_MILLIS
+                : costs.values().stream().mapToLong(Long::longValue).sum() / costs.size();
+
+        Map<String, List<IMethodInstance>> units = units(methods);
+        long[] loads = new long[count];
+        List<Unit> assignable = new ArrayList<>();
+        for (Map.Entry<String, List<IMethodInstance>> entry : units.entrySet()) {
+            long cost = 0;
+            for (IMethodInstance instance : entry.getValue()) {
+                cost += costs.getOrDefault(historyKey(instance.getMethod()), unknownCost);
+            }
+            ITestNGMethod only = entry.getValue().get(0).getMethod();
+            if (entry.getValue().size() == 1 && hasDataProvider(only)) {
+                SPLIT.add(only.getQualifiedName());
+                for (int shard = 0; shard < count; shard++) {
+                    loads[shard] += cost / count;
+                }
+            } else {
+                assignable.add(new Unit(entry.getKey(), cost));
+            }
+        }
+        assignable.sort(Comparator.comparingLong((Unit unit) -> unit.cost).reversed()
+                .thenComparingInt(unit -> unit.key.hashCode())
+                .thenComparing(unit -> unit.key));
+        Map<String, Integer> shardOf = new HashMap<>();
+        for (Unit unit : assignable) {
+            int lightest = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (loads[shard] < loads[lightest]) {
+                    lightest = shard;
+                }
+            }
+            loads[lightest] += unit.cost;
+            shardOf.put(unit.key, lightest);
+        }
+
+        Map<String, String> unitOf = new HashMap<>();
+        units.forEach((key, members) -> members.forEach(instance -> unitOf.put(instance.getMethod().getQualifiedName(), key)));
+        List<IMethodInstance> result = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            String name = instance.getMethod().getQualifiedName();
+            Integer shard = shardOf.get(unitOf.get(name));
+            if (shard == null ? SPLIT.contains(name) : shard == index) {
+                result.add(instance);
+            }
+        }
+        long total = 0;
+        for (long load : loads) {
+            total += load;
+        }
+        System.out.println("Shard " + index + " of " + count + ": running " + result.size() + " of " + methods.size()
+                + " tests (estimated " + loads[index] / 1000 + " s of " + total / 1000 + " s)");
+        return result;
+    }
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> rows, IDataProviderMethod dataProvider,
+                                        ITestNGMethod method, ITestContext context) {
+        int count = Config.getShardCount();
+        if (count <= 1 || !SPLIT.contains(method.getQualifiedName())) {
+            return rows;
+        }
+        int index = Config.getShardIndex();
+        int offset = Math.floorMod(method.getQualifiedName().hashCode(), count);
+        List<Object[]> kept = new ArrayList<>();
+        for (int row = 0; rows.hasNext(); row++) {
+            Object[] parameters = rows.next();
+            if ((row + offset) % count == index) {
+                kept.add(parameters);
+            }
+        }
+        return kept.iterator();
+    }
+
+    /**
+     * Where a shared metrics file ({@code .metrics/history.tsv}, ...) is written: the file itself,
+     * or the file of the same name in GITHUB_SHARD_DIR while sharded.
+     */
+    static Path output(String sharedFile) {
+        Path shared = Paths.get(sharedFile);
+        return Config.getShardCount() <= 1 ? shared : Paths.get(Config.getShardDir()).resolve(shared.getFileName());
+    }
+
+    // "Class#method" as in the history (before any [parameters]) -> summed last total time
+    private static Map<String, Long> historicalCosts() {
+        List<MetricsHistory.Row> rows;
+        try {
+            rows = MetricsHistory.read(Paths.get(Config.getMetricsHistoryFile()));
+        } catch (IOException e) {
+            System.err.println("Sharding without history: " + e.getMessage());
+            return new HashMap<>();
+        }
+        Map<String, Long> latest = new LinkedHashMap<>();
+        for (MetricsHistory.Row row : rows) {
+            latest.put(row.testId, row.totalMillis);
+        }
+        Map<String, Long> costs = new HashMap<>();
+        latest.forEach((testId, millis) -> {
+            int parameters = testId.indexOf('[');
+            costs.merge(parameters < 0 ? testId : testId.substring(0, parameters), millis, Long::sum);
+        });
+        return costs;
+    }
+
+    private static String historyKey(ITestNGMethod method) {
+        return method.getRealClass().getSimpleName() + "#" + method.getMethodName();
+    }
+
+    private static boolean hasDataProvider(ITestNGMethod method) {
+        Method reflected = method.getConstructorOrMethod().getMethod();
+        Test test = reflected == null ? null : reflected.getAnnotation(Test.class);
+        return test != null && !test.dataProvider().isEmpty();
+    }
+
+    // connected components of the dependsOnMethods graph, keyed by their smallest qualified name
+    private static Map<String, List<IMethodInstance>> units(List<IMethodInstance> methods) {
+        Map<String, String> parent = new HashMap<>();
+        for (IMethodInstance instance : methods) {
+            parent.put(instance.getMethod().getQualifiedName(), instance.getMethod().getQualifiedName());
+        }
+        for (IMethodInstance instance : methods) {
+            for (String upstream : instance.getMethod().getMethodsDependedUpon()) {
+                if (parent.containsKey(upstream)) {
+                    String a = root(parent, instance.getMethod().getQualifiedName());
+                    String b = root(parent, upstream);
+                    if (a.compareTo(b) < 0) {
+                        parent.put(b, a);
+                    } else {
+                        parent.put(a, b);
+                    }
+                }
+            }
+        }
+        Map<String, List<IMethodInstance>> units = new LinkedHashMap<>();
+        for (IMethodInstance instance : methods) {
+            units.computeIfAbsent(root(parent, instance.getMethod().getQualifiedName()), key -> new ArrayList<>()).add(instance);
+        }
+        return units;
+    }
+
+    private static String root(Map<String, String> parent, String name) {
+        String current = name;
+        while (!parent.get(current).equals(current)) {
+            current = parent.get(current);
+        }
+        return current;
+    }
+
+    private static final class Unit {
+        final String key;
+        final long cost;
+
+        Unit(String key, long cost) {
+            this.key = key;
+            this.cost = cost;
+        }
+    }
+}
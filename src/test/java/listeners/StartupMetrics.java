@@ -0,0 +1,102 @@
+package listeners;
+
+import http.CallMetrics;
+import utils.Config;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Startup history, one row per run (GITHUB_STARTUP_HISTORY): the JVM mode (class-data sharing
+ * archive in use, being recorded, or neither; with or without warm-up), time from JVM start to
+ * the suite and to the first API call, warm-up time, and suite and JVM totals. The report
+ * compares the modes, so a run with the {@code cds} profile can be read against one without.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes listeners.StartupMetrics [lastRuns]
+ * </pre>
+ */
+public class StartupMetrics {
+    static final String HEADER = "run_id\tmode\tjvm_to_suite_ms\tfirst_request_ms\twarmup_ms\tsuite_ms\tjvm_ms";
+
+    static void record(long runId, long suiteStartUptime, long suiteMillis) {
+        long jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        String row = runId + "\t" + mode() + "\t" + suiteStartUptime + "\t" + CallMetrics.firstRequestUptimeMillis() + "\t"
+                + WarmupListener.warmupMillis() + "\t" + suiteMillis + "\t" + jvmMillis;
+        Path file = ShardSelector.output(Config.getStartupHistoryFile());
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            boolean fresh = !Files.exists(file);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (fresh) {
+                    out.write(HEADER);
+                    out.newLine();
+                }
+                out.write(row);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write startup history: " + e.getMessage());
+        }
+        System.out.println("Startup (" + mode() + "): suite started at " + suiteStartUptime + " ms, first request at "
+                + CallMetrics.firstRequestUptimeMillis() + " ms" + (WarmupListener.warmupMillis() >= 0
+                ? " after a " + WarmupListener.warmupMillis() + " ms warm-up" : "") + ", suite " + suiteMillis + " ms");
+    }
+
+    /**
+     * {@code cds} when classes come from an AppCDS archive, {@code cds-dump} while one is recorded,
+     * else {@code default}; {@code +warmup} when the warm-up ran.
+     */
+    static String mode() {
+        List<String> arguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        String vmInfo = System.getProperty("java.vm.info", "");
+        String mode = "default";
+        if (arguments.stream().anyMatch(argument -> argument.startsWith("-XX:ArchiveClassesAtExit"))) {
+            mode = "cds-dump";
+        } else if (arguments.stream().anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile"))
+                && vmInfo.contains("sharing")) {
+            mode = "cds";
+        }
+        return WarmupListener.warmupMillis() >= 0 ? mode + "+warmup" : mode;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(Config.getStartupHistoryFile());
+        int lastRuns = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        List<String[]> rows = !Files.exists(file) ? new ArrayList<>() : Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isEmpty() && !line.startsWith("run_id"))
+                .map(line -> line.split("\t"))
+                .collect(Collectors.toList());
+        if (rows.isEmpty()) {
+            System.out.println("No startup history in " + file);
+            return;
+        }
+        rows = rows.subList(Math.max(0, rows.size() - lastRuns), rows.size());
+        Map<String, List<String[]>> byMode = new TreeMap<>();
+        rows.forEach(row -> byMode.computeIfAbsent(row[1], mode -> new ArrayList<>()).add(row));
+        System.out.println("Startup over the last " + rows.size() + " runs (medians, ms):");
+        System.out.printf("  %-16s %5s %10s %14s %8s %8s %8s%n", "mode", "runs", "to suite", "first request", "warm-up",
+                "suite", "jvm");
+        byMode.forEach((mode, runs) -> System.out.printf("  %-16s %5d %10d %14d %8d %8d %8d%n", mode, runs.size(),
+                median(runs, 2), median(runs, 3), median(runs, 4), median(runs, 5), median(runs, 6)));
+    }
+
+    private static long median(List<String[]> rows, int column) {
+        List<Long> values = rows.stream().map(row -> Long.parseLong(row[column])).sorted().collect(Collectors.toList());
+        return values.get(values.size() / 2);
+    }
+}
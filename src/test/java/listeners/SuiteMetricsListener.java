@@ -0,0 +1,139 @@
+package listeners;
+
+import api.SandboxPool;
+import faults.FaultProxy;
+import http.CallMetrics;
+import http.ConcurrencyLimiter;
+import http.CredentialPool;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.Config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Aggregates per-test duration, retries, HTTP calls, response bytes and body parses, appends one
+ * row per test to the history file (GITHUB_METRICS_HISTORY) when the suite ends and prints a short
+ * summary.
+ * The endpoints each test called are saved as request traces (GITHUB_IMPACT_TRACES) for
+ * {@link ImpactSelector}. Sharded runs write both under GITHUB_SHARD_DIR for {@link ShardMerge}.
+ * Time to first request and suite time go to the startup history ({@link StartupMetrics}).
+ * Query the history with {@link MetricsHistory}.
+ */
+public class SuiteMetricsListener implements ITestListener, ISuiteListener {
+    private final Map<String, MetricsHistory.Row> rows = new LinkedHashMap<>();
+    private final Map<String, Set<String>> traces = new HashMap<>();
+    private long runId;
+    private long suiteStartUptime;
+
+    @Override
+    public void onStart(ISuite suite) {
+        runId = System.currentTimeMillis();
+        suiteStartUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        rows.clear();
+        traces.clear();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        CallMetrics.begin();
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, result.wasRetried() ? "RETRY" : "SKIP");
+    }
+
+    @Override
+    public void onStart(ITestContext context) {
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+    }
+
+    @Override
+    public synchronized void onFinish(ISuite suite) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            MetricsHistory.append(ShardSelector.output(Config.getMetricsHistoryFile()), rows.values());
+        } catch (IOException e) {
+            System.err.println("Could not write metrics history: " + e.getMessage());
+        }
+        try {
+            ImpactTraces.update(ShardSelector.output(Config.getImpactTraceFile()), traces);
+        } catch (IOException e) {
+            System.err.println("Could not write impact traces: " + e.getMessage());
+        }
+        List<MetricsHistory.Row> slowest = new ArrayList<>(rows.values());
+        slowest.sort(Comparator.comparingLong((MetricsHistory.Row r) -> r.totalMillis).reversed());
+        System.out.println("Suite metrics: " + rows.size() + " tests, " + CallMetrics.total().calls() + " HTTP calls, "
+                + CallMetrics.total().bytes() + " response bytes, " + CallMetrics.total().parses() + " body parses ("
+                + CallMetrics.total().parsedBytes() + " bytes). " + ConcurrencyLimiter.shared().summary() + ". Slowest:");
+        for (MetricsHistory.Row row : slowest.subList(0, Math.min(5, slowest.size()))) {
+            System.out.println("  " + row.totalMillis + " ms  " + row.testId + (row.retries > 0 ? "  (retries: " + row.retries + ")" : ""));
+        }
+        if (CredentialPool.shared().isPooled()) {
+            System.out.println(CredentialPool.shared().summary());
+        }
+        if (SandboxPool.isStarted()) {
+            System.out.println(SandboxPool.shared().summary());
+        }
+        if (FaultProxy.installed() != null) {
+            System.out.println(FaultProxy.installed().summary());
+        }
+        StartupMetrics.record(runId, suiteStartUptime, System.currentTimeMillis() - runId);
+    }
+
+    private synchronized void record(ITestResult result, String status) {
+        CallMetrics.Scope scope = CallMetrics.end();
+        String testId = testId(result);
+        MetricsHistory.Row row = rows.computeIfAbsent(testId, id -> new MetricsHistory.Row(runId, id));
+        long millis = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        row.totalMillis += millis;
+        Set<String> endpoints = traces.computeIfAbsent(result.getMethod().getQualifiedName(), test -> new TreeSet<>());
+        if (scope != null) {
+            row.httpCalls += scope.calls();
+            row.httpBytes += scope.bytes();
+            row.jsonParses += scope.parses();
+            scope.endpoints().forEach(endpoint -> endpoints.add(ImpactTraces.routeKey(endpoint)));
+        }
+        if ("RETRY".equals(status)) {
+            row.retries++;
+        } else {
+            row.status = status;
+            row.durationMillis = millis;
+        }
+    }
+
+    static String testId(ITestResult result) {
+        String id = result.getTestClass().getRealClass().getSimpleName() + "#" + result.getMethod().getMethodName();
+        Object[] parameters = result.getParameters();
+        return parameters == null || parameters.length == 0 ? id : id + Arrays.toString(parameters);
+    }
+}
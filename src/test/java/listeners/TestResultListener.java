@@ -1,5 +1,7 @@
 package listeners;
 
+import http.CircuitBreakers;
+import http.CompressionMetrics;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
@@ -39,5 +41,7 @@ public class TestResultListener implements ITestListener {
     @Override
     public void onFinish(ITestContext context) {
         System.out.println("Finished test suite: " + context.getName());
+        System.out.println(CompressionMetrics.summary());
+        System.out.println(CircuitBreakers.summary());
     }
 }
@@ -0,0 +1,115 @@
+package listeners;
+
+import com.sun.net.httpserver.HttpServer;
+import contracts.ContractMatchers;
+import contracts.ResponseContract;
+import io.restassured.response.Response;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import pojo.Projection;
+import pojo.RepositoryResponse;
+import pojo.ResponseDocument;
+import utils.Config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Runs GITHUB_WARMUP_ITERATIONS rounds of the client and parsing paths against a loopback server
+ * before the first test: a RestAssured call with GPath matchers and JsonPath (loading Groovy), a
+ * {@link ResponseDocument} with a contract check and POJO binding, a {@link Projection}, and a
+ * JDK HttpClient call. The calls skip the suite's filters, so they are not counted as API calls
+ * and do not count as the first request; the parses do count in the suite's parse total.
+ */
+public class WarmupListener implements ISuiteListener {
+    private static final byte[] REPOSITORY = ("{\"id\":1,\"name\":\"warmup\",\"full_name\":\"octo/warmup\",\"private\":false,"
+            + "\"description\":null,\"fork\":false,\"html_url\":\"https://github.com/octo/warmup\",\"default_branch\":\"main\","
+            + "\"visibility\":\"public\",\"owner\":{\"login\":\"octo\",\"id\":2},\"topics\":[\"a\",\"b\"],\"size\":3}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static volatile long warmupMillis = -1;
+
+    @Override
+    public void onStart(ISuite suite) {
+        int iterations = Config.getWarmupIterations();
+        if (iterations <= 0 || warmupMillis >= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        HttpServer server = null;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", exchange -> {
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, REPOSITORY.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(REPOSITORY);
+                }
+            });
+            server.start();
+            String base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+            HttpClient client = HttpClient.newHttpClient();
+            for (int i = 0; i < iterations; i++) {
+                round(base, client);
+            }
+            warmupMillis = (System.nanoTime() - started) / 1_000_000;
+            System.out.println("Warm-up: " + iterations + " rounds in " + warmupMillis + " ms (JVM up "
+                    + ManagementFactory.getRuntimeMXBean().getUptime() + " ms)");
+        } catch (IOException | RuntimeException | AssertionError e) {
+            warmupMillis = (System.nanoTime() - started) / 1_000_000;
+            System.err.println("Warm-up stopped after " + warmupMillis + " ms: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+    }
+
+    /**
+     * How long the warm-up took, or -1 when it did not run.
+     */
+    static long warmupMillis() {
+        return warmupMillis;
+    }
+
+    private static void round(String base, HttpClient client) throws IOException, InterruptedException {
+        Response response = given()
+                .noFilters()
+                .baseUri(base)
+            .when()
+                .get("/repos/octo/warmup")
+            .then()
+                .statusCode(200)
+                .body("owner.login", equalTo("octo"))
+                .extract().response();
+        response.jsonPath().getString("full_name");
+
+        ResponseDocument document = ResponseDocument.parse(response.asByteArray());
+        if (!ContractMatchers.matchesContract(ResponseContract.REPOSITORY).matches(document)) {
+            throw new IllegalStateException("Warm-up body does not match the REPOSITORY contract");
+        }
+        document.as(RepositoryResponse.class);
+        document.getList("topics");
+        Projection.as(response, RepositoryResponse.class);
+
+        HttpResponse<byte[]> raw = client.send(HttpRequest.newBuilder(URI.create(base + "/repos/octo/warmup")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        ResponseDocument.parse(raw.body()).getString("default_branch");
+    }
+}
@@ -0,0 +1,31 @@
+package pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Projection of a repository contents response: metadata plus the encoded body, without the
+ * {@code _links} and URL fields.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContentResponse {
+    private String name;
+    private String type;
+    private String sha;
+    private String content;
+    private String encoding;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getSha() { return sha; }
+    public void setSha(String sha) { this.sha = sha; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public String getEncoding() { return encoding; }
+    public void setEncoding(String encoding) { this.encoding = encoding; }
+}
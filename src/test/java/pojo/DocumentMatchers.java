@@ -0,0 +1,59 @@
+package pojo;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+/**
+ * Hamcrest matchers over a {@link ResponseDocument}, the parse-once counterpart of RestAssured's
+ * {@code body(path, matcher)}: {@code assertThat(body, hasPath("commit.message", not(emptyString())))}.
+ */
+public final class DocumentMatchers {
+
+    private DocumentMatchers() {
+    }
+
+    /**
+     * The value at {@code path}, as {@link ResponseDocument#get} returns it, matches {@code value}.
+     */
+    public static Matcher<ResponseDocument> hasPath(String path, Matcher<?> value) {
+        return new TypeSafeDiagnosingMatcher<ResponseDocument>() {
+            @Override
+            protected boolean matchesSafely(ResponseDocument document, Description mismatch) {
+                Object actual = document.get(path);
+                if (!value.matches(actual)) {
+                    mismatch.appendText(path).appendText(" ");
+                    value.describeMismatch(actual, mismatch);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText(path).appendText(" ").appendDescriptionOf(value);
+            }
+        };
+    }
+
+    /**
+     * The path selects a value, JSON null included.
+     */
+    public static Matcher<ResponseDocument> hasPath(String path) {
+        return new TypeSafeDiagnosingMatcher<ResponseDocument>() {
+            @Override
+            protected boolean matchesSafely(ResponseDocument document, Description mismatch) {
+                if (!document.has(path)) {
+                    mismatch.appendText("no value at ").appendText(path);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a value at ").appendText(path);
+            }
+        };
+    }
+}
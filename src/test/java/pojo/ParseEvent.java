@@ -0,0 +1,31 @@
+package pojo;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one {@link Projection#parse} or {@link ResponseDocument#parse} pass;
+ * its duration is the parse time.
+ */
+@Name("github.JsonParse")
+@Label("JSON Parse")
+@Category({"GitHub API", "JSON"})
+@Description("One streaming parse of a response into projections or a document")
+@StackTrace(false)
+class ParseEvent extends Event {
+    @Label("Projections")
+    String projections;
+
+    @Label("Input Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Kept Fields")
+    @Description("Top-level fields kept by a projection, or values on a document's tape")
+    int keptFields;
+}
@@ -0,0 +1,137 @@
+package pojo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import http.CallMetrics;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * One streaming pass over a JSON object response that keeps only the top-level fields some
+ * projection declares (its Jackson properties) and skips every other subtree, such as
+ * {@code owner}, {@code permissions} or {@code license}, without building nodes for it.
+ * Every projection passed to {@link #parse} is then bound from the same small set of kept fields.
+ * Only top-level names are matched: a nested value is kept by declaring its top-level field with a
+ * nested type, and dotted property names such as {@code @JsonProperty("owner.login")} are rejected.
+ * Each parse is recorded as a {@link ParseEvent} when Flight Recorder is enabled for it.
+ * Use it when a few fields are bound and nothing else reads the body; when the body is also
+ * asserted on or checked against a contract, use {@link ResponseDocument}, which serves all of
+ * those from one parse.
+ *
+ * <pre>
+ * Projection doc = Projection.parse(response, RepositoryResponse.class, ContentResponse.class);
+ * RepositoryResponse repo = doc.as(RepositoryResponse.class);
+ * </pre>
+ */
+public final class Projection {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final Map<Class<?>, Set<String>> FIELDS = new ConcurrentHashMap<>();
+
+    private final ObjectNode kept;
+    private final Set<Class<?>> projections;
+    private final Map<Class<?>, Object> bound = new HashMap<>();
+
+    private Projection(ObjectNode kept, Set<Class<?>> projections) {
+        this.kept = kept;
+        this.projections = projections;
+    }
+
+    public static Projection parse(Response response, Class<?>... projections) {
+        return parse(response.asByteArray(), projections);
+    }
+
+    public static Projection parse(byte[] json, Class<?>... projections) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        Set<String> wanted = new HashSet<>();
+        Set<Class<?>> types = new HashSet<>();
+        for (Class<?> projection : projections) {
+            wanted.addAll(fields(projection));
+            types.add(projection);
+        }
+        ObjectNode kept = MAPPER.createObjectNode();
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Projections need a JSON object, got " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (wanted.contains(name)) {
+                    kept.set(name, MAPPER.readTree(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CallMetrics.recordParse(json.length);
+        event.end();
+        if (event.shouldCommit()) {
+            event.projections = types.stream().map(Class::getSimpleName).sorted().collect(Collectors.joining(","));
+            event.bytes = json.length;
+            event.keptFields = kept.size();
+            event.commit();
+        }
+        return new Projection(kept, types);
+    }
+
+    /**
+     * Shortcut for a single projection.
+     */
+    public static <T> T as(Response response, Class<T> projection) {
+        return parse(response, projection).as(projection);
+    }
+
+    public synchronized <T> T as(Class<T> projection) {
+        if (!projections.contains(projection)) {
+            throw new IllegalArgumentException(projection.getSimpleName() + " was not requested when this response was parsed");
+        }
+        return projection.cast(bound.computeIfAbsent(projection, type -> {
+            try {
+                return MAPPER.treeToValue(kept, type);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    /**
+     * A kept field by its JSON name, or null when absent or not declared by any projection.
+     */
+    public JsonNode field(String name) {
+        return kept.get(name);
+    }
+
+    static Set<String> fields(Class<?> projection) {
+        return FIELDS.computeIfAbsent(projection, type -> {
+            BeanDescription description = MAPPER.getDeserializationConfig().introspect(MAPPER.constructType(type));
+            Set<String> names = new HashSet<>();
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                if (property.getName().indexOf('.') >= 0) {
+                    throw new IllegalArgumentException(type.getSimpleName() + "." + property.getInternalName()
+                            + ": projections match top-level fields only, not '" + property.getName() + "'");
+                }
+                names.add(property.getName());
+            }
+            return Collections.unmodifiableSet(names);
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Offline tests of field selection and binding in {@link Projection}.
+ */
+public class ProjectionTest {
+    private static final byte[] REPOSITORY = ("{\"id\":1,\"full_name\":\"o/r\",\"private\":true,\"description\":\"d\","
+            + "\"owner\":{\"login\":\"o\",\"full_name\":\"shadow\"},\"default_branch\":\"main\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DottedResponse {
+        @JsonProperty("owner.login")
+        public String ownerLogin;
+    }
+
+    @Test
+    public void testKeepsOnlyDeclaredTopLevelFields() {
+        Projection doc = Projection.parse(REPOSITORY, RepositoryResponse.class);
+        Assert.assertEquals(doc.field("full_name").asText(), "o/r", "a nested field of the same name does not win");
+        Assert.assertNull(doc.field("owner"));
+        Assert.assertNull(doc.field("id"));
+
+        RepositoryResponse repo = doc.as(RepositoryResponse.class);
+        Assert.assertTrue(repo.isPrivate());
+        Assert.assertEquals(repo.getDefaultBranch(), "main");
+        Assert.assertSame(doc.as(RepositoryResponse.class), repo, "bound once per parse");
+    }
+
+    @Test
+    public void testRejectsProjectionNotRequested() {
+        Projection doc = Projection.parse(REPOSITORY, RepositoryResponse.class);
+        Assert.assertThrows(IllegalArgumentException.class, () -> doc.as(ContentResponse.class));
+    }
+
+    @Test
+    public void testRejectsDottedPropertyNames() {
+        IllegalArgumentException e = Assert.expectThrows(IllegalArgumentException.class,
+                () -> Projection.parse(REPOSITORY, DottedResponse.class));
+        Assert.assertTrue(e.getMessage().contains("owner.login"), e.getMessage());
+    }
+
+    @Test
+    public void testRejectsNonObjectBodies() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> Projection.parse("[]".getBytes(StandardCharsets.UTF_8), RepositoryResponse.class));
+    }
+}
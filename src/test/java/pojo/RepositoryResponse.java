@@ -14,6 +14,9 @@ public class RepositoryResponse {
     @JsonProperty("description")
     private String description;
 
+    @JsonProperty("default_branch")
+    private String defaultBranch;
+
     public String getFull_name() { return fullName; }
     public void setFull_name(String fullName) { this.fullName = fullName; }
 
@@ -22,4 +25,7 @@ public class RepositoryResponse {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+
+    public String getDefaultBranch() { return defaultBranch; }
+    public void setDefaultBranch(String defaultBranch) { this.defaultBranch = defaultBranch; }
 }
@@ -0,0 +1,464 @@
+package pojo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import http.CallMetrics;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A response body parsed once into a flat, immutable tape: one slot per JSON value in document
+ * order, holding its kind, field name, scalar text and the slot just past its subtree. Path
+ * queries, Hamcrest matchers ({@link DocumentMatchers}), contract checks and POJO binding all
+ * read the tape, so a test that asserts on several fields and then binds the body still
+ * tokenizes it only once. {@link #of(Response)} returns the same document for the same response.
+ *
+ * <pre>
+ * ResponseDocument body = ResponseDocument.of(response);
+ * assertThat(body, matchesContract(ResponseContract.COMMIT));
+ * String sha = body.getString("sha");
+ * List&lt;String&gt; paths = body.getList("files.filename");
+ * </pre>
+ * Paths follow the GPath subset our tests use: dotted field names, {@code [i]} indexes (negative
+ * from the end), and a field name applied to an array collects it from every element. Each parse
+ * is counted in {@link CallMetrics} and recorded as a {@link ParseEvent}. For binding a few
+ * top-level fields of a body nothing else reads, {@link Projection} is cheaper: it keeps no tape.
+ */
+public final class ResponseDocument {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final Map<Response, ResponseDocument> BY_RESPONSE = new WeakHashMap<>();
+    // objects with fewer members are searched linearly, larger ones get a name -> slot index on first lookup
+    private static final int INDEXED_MEMBERS = 16;
+    private static final BigDecimal FLOAT_MAX = new BigDecimal(Float.MAX_VALUE);
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+    private static final byte STRING = 3;
+    private static final byte INTEGER = 4;
+    private static final byte FLOAT = 5;
+    private static final byte TRUE = 6;
+    private static final byte FALSE = 7;
+    private static final byte NULL = 8;
+
+    private final byte[] kinds;
+    private final int[] ends;
+    private final String[] names;
+    private final String[] values;
+    private final int size;
+    private final long bytes;
+    private final Map<Integer, Map<String, Integer>> memberIndex = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Object> bound = new ConcurrentHashMap<>();
+    private volatile TokenBuffer tokens;
+
+    private ResponseDocument(byte[] kinds, int[] ends, String[] names, String[] values, int size, long bytes) {
+        this.kinds = kinds;
+        this.ends = ends;
+        this.names = names;
+        this.values = values;
+        this.size = size;
+        this.bytes = bytes;
+    }
+
+    /**
+     * The document for this response, parsed on the first call and shared by later ones.
+     */
+    public static ResponseDocument of(Response response) {
+        synchronized (BY_RESPONSE) {
+            ResponseDocument cached = BY_RESPONSE.get(response);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ResponseDocument document = parse(response.asByteArray());
+        synchronized (BY_RESPONSE) {
+            ResponseDocument raced = BY_RESPONSE.putIfAbsent(response, document);
+            return raced != null ? raced : document;
+        }
+    }
+
+    public static ResponseDocument parse(byte[] json) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        int capacity = Math.max(16, json.length / 16);
+        byte[] kinds = new byte[capacity];
+        int[] ends = new int[capacity];
+        String[] names = new String[capacity];
+        String[] values = new String[capacity];
+        int size = 0;
+        int[] open = new int[32];
+        int depth = 0;
+        String name = null;
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    // Jackson canonicalizes field names, so repeated keys share one String
+                    name = parser.currentName();
+                    continue;
+                }
+                if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    ends[open[--depth]] = size;
+                    if (depth == 0) {
+                        break;
+                    }
+                    continue;
+                }
+                if (size == kinds.length) {
+                    int grown = size * 2;
+                    kinds = Arrays.copyOf(kinds, grown);
+                    ends = Arrays.copyOf(ends, grown);
+                    names = Arrays.copyOf(names, grown);
+                    values = Arrays.copyOf(values, grown);
+                }
+                int slot = size++;
+                kinds[slot] = kind(token);
+                names[slot] = name;
+                name = null;
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = slot;
+                } else {
+                    ends[slot] = slot + 1;
+                    if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT
+                            || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                        values[slot] = parser.getText();
+                    }
+                    if (depth == 0) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (size == 0 || depth != 0) {
+            throw new IllegalArgumentException("Response body is not a complete JSON document");
+        }
+        CallMetrics.recordParse(json.length);
+        event.end();
+        if (event.shouldCommit()) {
+            event.projections = ResponseDocument.class.getSimpleName();
+            event.bytes = json.length;
+            event.keptFields = size;
+            event.commit();
+        }
+        return new ResponseDocument(kinds, ends, names, values, size, json.length);
+    }
+
+    /**
+     * Whether the path selects a value (JSON null included) or, for a collecting path, any value.
+     */
+    public boolean has(String path) {
+        return !select(path).slots.isEmpty();
+    }
+
+    /**
+     * The value at the path as JsonPath with its default FLOAT_AND_DOUBLE number type would return
+     * it: String, Integer, Long or BigInteger, Float (Double beyond the float range), Boolean, an
+     * unmodifiable List or Map, or null when absent.
+     */
+    public Object get(String path) {
+        Selection selection = select(path);
+        if (selection.collected) {
+            List<Object> list = new ArrayList<>(selection.slots.size());
+            for (int slot : selection.slots) {
+                list.add(value(slot));
+            }
+            return Collections.unmodifiableList(list);
+        }
+        return selection.slots.isEmpty() ? null : value(selection.slots.get(0));
+    }
+
+    public String getString(String path) {
+        Object value = get(path);
+        return value == null ? null : value.toString();
+    }
+
+    public Integer getInt(String path) {
+        Object value = get(path);
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    public Long getLong(String path) {
+        Object value = get(path);
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    public Boolean getBoolean(String path) {
+        return (Boolean) get(path);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(String path) {
+        Object value = get(path);
+        return value == null ? null : (List<T>) value;
+    }
+
+    /**
+     * Number of elements of the array, or members of the object, at the path; -1 when it is neither.
+     */
+    public int size(String path) {
+        Selection selection = select(path);
+        if (selection.collected) {
+            return selection.slots.size();
+        }
+        if (selection.slots.isEmpty() || (kinds[selection.slots.get(0)] != ARRAY && kinds[selection.slots.get(0)] != OBJECT)) {
+            return -1;
+        }
+        int count = 0;
+        int parent = selection.slots.get(0);
+        for (int child = parent + 1; child < ends[parent]; child = ends[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * The whole document bound to a POJO; each type is bound once per document.
+     */
+    public <T> T as(Class<T> type) {
+        return type.cast(bound.computeIfAbsent(type, t -> {
+            try (JsonParser parser = parser()) {
+                return MAPPER.readValue(parser, t);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    /**
+     * A parser replaying the document's tokens from the tape, for streaming consumers such as
+     * contract validation. Replaying does not re-read the body text.
+     */
+    public JsonParser parser() {
+        TokenBuffer buffer = tokens;
+        if (buffer == null) {
+            buffer = new TokenBuffer(MAPPER, false);
+            try {
+                write(buffer, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            tokens = buffer;
+        }
+        return buffer.asParser(MAPPER);
+    }
+
+    /**
+     * Size of the parsed body.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Number of JSON values (objects, arrays and scalars) in the document.
+     */
+    public int valueCount() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseDocument(" + size + " values, " + bytes + " bytes)";
+    }
+
+    private Selection select(String path) {
+        Selection selection = new Selection();
+        selection.slots.add(0);
+        if (path == null || path.isEmpty() || "$".equals(path)) {
+            return selection;
+        }
+        for (String segment : path.split("\\.")) {
+            int bracket = segment.indexOf('[');
+            String field = bracket < 0 ? segment : segment.substring(0, bracket);
+            if (!field.isEmpty()) {
+                List<Integer> next = new ArrayList<>();
+                for (int slot : selection.slots) {
+                    if (kinds[slot] == OBJECT) {
+                        addMember(next, slot, field);
+                    } else if (kinds[slot] == ARRAY) {
+                        selection.collected = true;
+                        for (int element = slot + 1; element < ends[slot]; element = ends[element]) {
+                            if (kinds[element] == OBJECT) {
+                                addMember(next, element, field);
+                            }
+                        }
+                    }
+                }
+                selection.slots = next;
+            }
+            while (bracket >= 0) {
+                int close = segment.indexOf(']', bracket);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed index in path '" + path + "'");
+                }
+                int index = Integer.parseInt(segment.substring(bracket + 1, close).trim());
+                List<Integer> candidates = selection.slots;
+                if (!selection.collected) {
+                    candidates = new ArrayList<>();
+                    if (!selection.slots.isEmpty() && kinds[selection.slots.get(0)] == ARRAY) {
+                        int array = selection.slots.get(0);
+                        for (int element = array + 1; element < ends[array]; element = ends[element]) {
+                            candidates.add(element);
+                        }
+                    }
+                }
+                int resolved = index < 0 ? candidates.size() + index : index;
+                selection.slots = resolved >= 0 && resolved < candidates.size()
+                        ? new ArrayList<>(Collections.singletonList(candidates.get(resolved)))
+                        : new ArrayList<>();
+                selection.collected = false;
+                bracket = segment.indexOf('[', close);
+            }
+        }
+        return selection;
+    }
+
+    private void addMember(List<Integer> into, int object, String field) {
+        int member = member(object, field);
+        if (member >= 0) {
+            into.add(member);
+        }
+    }
+
+    private int member(int object, String field) {
+        Map<String, Integer> index = memberIndex.get(object);
+        if (index == null) {
+            int count = 0;
+            for (int child = object + 1; child < ends[object]; child = ends[child]) {
+                if (field.equals(names[child])) {
+                    return child;
+                }
+                count++;
+            }
+            if (count < INDEXED_MEMBERS) {
+                return -1;
+            }
+            Map<String, Integer> built = new HashMap<>(count * 2);
+            for (int child = object + 1; child < ends[object]; child = ends[child]) {
+                built.putIfAbsent(names[child], child);
+            }
+            memberIndex.put(object, built);
+            return -1;
+        }
+        Integer child = index.get(field);
+        return child == null ? -1 : child;
+    }
+
+    private Object value(int slot) {
+        switch (kinds[slot]) {
+            case OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int child = slot + 1; child < ends[slot]; child = ends[child]) {
+                    map.put(names[child], value(child));
+                }
+                return Collections.unmodifiableMap(map);
+            }
+            case ARRAY: {
+                List<Object> list = new ArrayList<>();
+                for (int child = slot + 1; child < ends[slot]; child = ends[child]) {
+                    list.add(value(child));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            case STRING:
+                return values[slot];
+            case INTEGER: {
+                BigInteger number = new BigInteger(values[slot]);
+                if (number.bitLength() < 32) {
+                    return number.intValue();
+                }
+                return number.bitLength() < 64 ? (Object) number.longValue() : number;
+            }
+            case FLOAT: {
+                BigDecimal number = new BigDecimal(values[slot]);
+                return number.abs().compareTo(FLOAT_MAX) > 0 ? (Object) number.doubleValue() : number.floatValue();
+            }
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private void write(JsonGenerator out, int slot) throws IOException {
+        if (names[slot] != null) {
+            out.writeFieldName(names[slot]);
+        }
+        switch (kinds[slot]) {
+            case OBJECT:
+            case ARRAY:
+                if (kinds[slot] == OBJECT) {
+                    out.writeStartObject();
+                } else {
+                    out.writeStartArray();
+                }
+                for (int child = slot + 1; child < ends[slot]; child = ends[child]) {
+                    write(out, child);
+                }
+                if (kinds[slot] == OBJECT) {
+                    out.writeEndObject();
+                } else {
+                    out.writeEndArray();
+                }
+                break;
+            case STRING:
+                out.writeString(values[slot]);
+                break;
+            case INTEGER:
+                out.writeNumber(new BigInteger(values[slot]));
+                break;
+            case FLOAT:
+                out.writeNumber(new BigDecimal(values[slot]));
+                break;
+            case TRUE:
+            case FALSE:
+                out.writeBoolean(kinds[slot] == TRUE);
+                break;
+            default:
+                out.writeNull();
+        }
+    }
+
+    private static byte kind(JsonToken token) {
+        switch (token) {
+            case START_OBJECT: return OBJECT;
+            case START_ARRAY: return ARRAY;
+            case VALUE_STRING: return STRING;
+            case VALUE_NUMBER_INT: return INTEGER;
+            case VALUE_NUMBER_FLOAT: return FLOAT;
+            case VALUE_TRUE: return TRUE;
+            case VALUE_FALSE: return FALSE;
+            default: return NULL;
+        }
+    }
+
+    private static final class Selection {
+        List<Integer> slots = new ArrayList<>();
+        // true once a field was collected over an array: the result is a list even with 0 or 1 slots
+        boolean collected;
+    }
+}
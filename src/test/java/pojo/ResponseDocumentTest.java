@@ -0,0 +1,147 @@
+package pojo;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline tests of the tape, path selection and binding of {@link ResponseDocument}.
+ */
+public class ResponseDocumentTest {
+    private static final String COMMIT = "{\"sha\":\"abc\",\"commit\":{\"message\":\"m\",\"verified\":true},"
+            + "\"stats\":{\"total\":3,\"big\":5000000000,\"ratio\":0.5},\"parents\":[],\"note\":null,"
+            + "\"files\":[{\"filename\":\"a\",\"changes\":1},{\"filename\":\"b\"},{\"status\":\"removed\"}]}";
+
+    private static ResponseDocument document(String json) {
+        return ResponseDocument.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testScalarsAndNesting() {
+        ResponseDocument body = document(COMMIT);
+        Assert.assertEquals(body.getString("sha"), "abc");
+        Assert.assertEquals(body.getString("commit.message"), "m");
+        Assert.assertEquals(body.getBoolean("commit.verified"), Boolean.TRUE);
+        Assert.assertEquals(body.get("stats.total"), 3);
+        Assert.assertEquals(body.get("stats.big"), 5_000_000_000L, "integers widen like JsonPath");
+        Assert.assertEquals(body.get("stats.ratio"), 0.5f);
+        Assert.assertEquals(body.get("$"), body.get(""));
+    }
+
+    @Test
+    public void testDecimalsHaveJsonPathNumberTypes() {
+        String json = "{\"half\":1.5,\"pi\":3.141592653589793,\"exp\":1E2,\"tiny\":-1e-50,\"huge\":1e300,"
+                + "\"edge\":3.4028235e38,\"long\":12345678901.5}";
+        ResponseDocument body = document(json);
+        JsonPath expected = new JsonPath(json);
+        for (String path : new String[]{"half", "pi", "exp", "tiny", "huge", "edge", "long"}) {
+            Object actual = body.get(path);
+            Assert.assertEquals(actual, expected.get(path), path);
+            Assert.assertEquals(actual.getClass(), expected.get(path).getClass(), path);
+        }
+    }
+
+    @Test
+    public void testNullIsPresentButMissingIsNot() {
+        ResponseDocument body = document(COMMIT);
+        Assert.assertTrue(body.has("note"));
+        Assert.assertNull(body.get("note"));
+        Assert.assertFalse(body.has("missing"));
+        Assert.assertFalse(body.has("commit.missing.deeper"));
+    }
+
+    @Test
+    public void testIndexesCountFromEitherEnd() {
+        ResponseDocument body = document(COMMIT);
+        Assert.assertEquals(body.getString("files[0].filename"), "a");
+        Assert.assertEquals(body.getString("files[-1].status"), "removed");
+        Assert.assertFalse(body.has("files[3]"));
+        Assert.assertFalse(body.has("parents[0]"));
+        Assert.assertEquals(document("[[1,2],[3,4]]").get("[1][0]"), 3);
+    }
+
+    @Test
+    public void testFieldOnArrayCollectsFromEveryElement() {
+        ResponseDocument body = document(COMMIT);
+        Assert.assertEquals(body.getList("files.filename"), Arrays.asList("a", "b"), "elements without the field are skipped");
+        Assert.assertEquals(body.getList("files.changes"), Collections.singletonList(1), "a single hit is still a list");
+        Assert.assertEquals(body.getList("parents.sha"), Collections.emptyList());
+        Assert.assertTrue(body.has("files.filename"));
+        Assert.assertFalse(body.has("parents.sha"));
+        Assert.assertEquals(body.getString("files.filename[1]"), "b", "an index picks from the collected values");
+    }
+
+    @Test
+    public void testSizeOfArraysObjectsAndCollections() {
+        ResponseDocument body = document(COMMIT);
+        Assert.assertEquals(body.size("files"), 3);
+        Assert.assertEquals(body.size("commit"), 2);
+        Assert.assertEquals(body.size("parents"), 0);
+        Assert.assertEquals(body.size("files.filename"), 2);
+        Assert.assertEquals(body.size("sha"), -1);
+        Assert.assertEquals(body.size("missing"), -1);
+    }
+
+    @Test
+    public void testContainersAreUnmodifiableAndOrdered() {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> commit = (Map<String, Object>) document(COMMIT).get("commit");
+        Assert.assertEquals(commit.keySet().toString(), "[message, verified]");
+        Assert.assertThrows(UnsupportedOperationException.class, () -> commit.put("x", 1));
+        List<Object> files = document(COMMIT).getList("files");
+        Assert.assertThrows(UnsupportedOperationException.class, () -> files.add(1));
+    }
+
+    @Test
+    public void testLargeObjectsFindEveryMember() {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 40; i++) {
+            json.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":").append(i);
+        }
+        ResponseDocument body = document(json.append("}").toString());
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals(body.get("f" + i), i);
+        }
+        Assert.assertFalse(body.has("f40"));
+        Assert.assertEquals(body.valueCount(), 41);
+    }
+
+    @Test
+    public void testReplayAndBindingMatchTheBody() throws Exception {
+        ResponseDocument body = document(COMMIT);
+        ObjectMapper mapper = new ObjectMapper();
+        try (JsonParser replay = body.parser()) {
+            // numbers replay as BigInteger/BigDecimal, so compare the text they write
+            Assert.assertEquals(mapper.writeValueAsString(mapper.readTree(replay)), COMMIT);
+        }
+        ResponseDocument repository = document("{\"full_name\":\"o/r\",\"private\":true,\"owner\":{\"login\":\"o\"}}");
+        RepositoryResponse bound = repository.as(RepositoryResponse.class);
+        Assert.assertEquals(bound.getFull_name(), "o/r");
+        Assert.assertTrue(bound.isPrivate());
+        Assert.assertSame(repository.as(RepositoryResponse.class), bound);
+    }
+
+    @Test
+    public void testOfParsesEachResponseOnce() {
+        Response response = new ResponseBuilder().setStatusCode(200).setBody(COMMIT).build();
+        Assert.assertSame(ResponseDocument.of(response), ResponseDocument.of(response));
+    }
+
+    @Test
+    public void testRejectsIncompleteDocuments() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> document(""));
+        Assert.assertThrows(UncheckedIOException.class, () -> document("{\"a\":[1,2"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> document(COMMIT).get("files[0"));
+    }
+}
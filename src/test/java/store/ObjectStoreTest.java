@@ -0,0 +1,183 @@
+package store;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Offline tests of the mmap index, compaction, eviction and locking of {@link ObjectStore}.
+ */
+public class ObjectStoreTest {
+    private static final byte BLOB = 4;
+    private static final byte TREE = 3;
+
+    private Path dir;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("object-store-test");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            Assert.assertTrue(store.put(BLOB, sha(1), bytes("hello")));
+            Assert.assertFalse(store.put(BLOB, sha(1), bytes("again")), "an existing key is not overwritten");
+            Assert.assertTrue(store.put(TREE, sha(1), bytes("same sha, other kind")));
+
+            Assert.assertEquals(text(store.get(BLOB, sha(1))), "hello");
+            Assert.assertEquals(text(store.get(TREE, sha(1))), "same sha, other kind");
+            Assert.assertNull(store.get(BLOB, sha(2)));
+            Assert.assertTrue(store.get(BLOB, sha(1)).isReadOnly());
+            Assert.assertEquals(store.objectCount(), 2);
+            Assert.assertEquals(store.hits(), 3);
+            Assert.assertEquals(store.misses(), 1);
+        }
+    }
+
+    @Test
+    public void testRejectsMalformedSha() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            Assert.assertThrows(IllegalArgumentException.class, () -> store.get(BLOB, "abc"));
+            Assert.assertThrows(IllegalArgumentException.class, () -> store.put(BLOB, "g" + sha(1).substring(1), bytes("x")));
+        }
+    }
+
+    @Test
+    public void testReopenMapsExistingIndex() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            for (int i = 0; i < 2000; i++) {
+                store.put(BLOB, sha(i), bytes("object " + i));
+            }
+            store.remove(BLOB, sha(7));
+        }
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            Assert.assertEquals(store.objectCount(), 1999);
+            Assert.assertEquals(text(store.get(BLOB, sha(1999))), "object 1999");
+            Assert.assertNull(store.get(BLOB, sha(7)));
+        }
+    }
+
+    @Test
+    public void testRebuildsIndexFromDataFile() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            store.put(BLOB, sha(1), bytes("one"));
+            store.put(BLOB, sha(2), bytes("two"));
+            store.remove(BLOB, sha(1));
+        }
+        Files.delete(dir.resolve("objects.idx"));
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            Assert.assertNull(store.get(BLOB, sha(1)), "the tombstone is replayed");
+            Assert.assertEquals(text(store.get(BLOB, sha(2))), "two");
+            Assert.assertEquals(store.objectCount(), 1);
+        }
+    }
+
+    @Test
+    public void testTruncatesTornTail() throws IOException {
+        long intact;
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            store.put(BLOB, sha(1), bytes("complete"));
+            intact = store.sizeBytes();
+            store.put(BLOB, sha(2), bytes("cut short by a crash"));
+        }
+        try (FileChannel data = FileChannel.open(dir.resolve("objects.dat"), StandardOpenOption.WRITE)) {
+            data.truncate(intact + 10);
+        }
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            Assert.assertEquals(store.sizeBytes(), intact);
+            Assert.assertEquals(text(store.get(BLOB, sha(1))), "complete");
+            Assert.assertNull(store.get(BLOB, sha(2)));
+            Assert.assertTrue(store.put(BLOB, sha(2), bytes("written again")));
+        }
+    }
+
+    @Test
+    public void testCompactionDropsRemovedRecords() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 1 << 20)) {
+            store.put(BLOB, sha(1), new byte[1000]);
+            store.put(BLOB, sha(2), bytes("kept"));
+            store.remove(BLOB, sha(1));
+            long before = store.sizeBytes();
+            store.compact();
+            Assert.assertTrue(store.sizeBytes() < before - 1000, "compacted to " + store.sizeBytes() + " from " + before);
+            Assert.assertEquals(text(store.get(BLOB, sha(2))), "kept");
+            Assert.assertEquals(store.objectCount(), 1);
+        }
+    }
+
+    @Test
+    public void testEvictsOldestOverCap() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 10_000)) {
+            for (int i = 0; i < 20; i++) {
+                Assert.assertTrue(store.put(BLOB, sha(i), new byte[1000]));
+                Assert.assertTrue(store.sizeBytes() <= 10_000, "size " + store.sizeBytes() + " after object " + i);
+            }
+            Assert.assertNotNull(store.get(BLOB, sha(19)), "the newest object survives eviction");
+            Assert.assertNull(store.get(BLOB, sha(0)), "the oldest object is evicted");
+            Assert.assertTrue(store.objectCount() < 20);
+        }
+    }
+
+    @Test
+    public void testSkipsObjectsLargerThanEvictionBudget() throws IOException {
+        try (ObjectStore store = ObjectStore.open(dir, 10_000)) {
+            store.put(BLOB, sha(1), bytes("small"));
+            Assert.assertFalse(store.put(BLOB, sha(2), new byte[8000]), "an object compaction would drop at once is not stored");
+            Assert.assertNull(store.get(BLOB, sha(2)));
+            Assert.assertEquals(text(store.get(BLOB, sha(1))), "small");
+        }
+    }
+
+    @Test
+    public void testSecondOpenOfLockedDirectoryFails() throws IOException {
+        ObjectStore store = ObjectStore.open(dir, 1 << 20);
+        try {
+            Assert.assertThrows(ObjectStore.StoreLockedException.class, () -> ObjectStore.open(dir, 1 << 20));
+        } finally {
+            store.close();
+        }
+        ObjectStore.open(dir, 1 << 20).close();
+    }
+
+    // a real SHA-1 per n, so keys spread over the index the way object ids do
+    private static String sha(int n) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes(Integer.toString(n)));
+            return String.format("%040x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,8 +1,13 @@
 package tests;
 
+import api.GitHubRepositoryClient;
+import api.GitHubRoute;
+import api.GitHubSpec;
+import api.GitTreeWriter;
+import api.SandboxPool;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import contracts.ResponseContract;
 import io.qameta.allure.*;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import listeners.RetryAnalyzer;
@@ -11,16 +16,27 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
+import pojo.ContentResponse;
+import pojo.Projection;
+import pojo.RepositoryResponse;
 import pojo.RepositoryTestData;
-import utils.Config;
+import pojo.ResponseDocument;
+import utils.RestAssuredSupport;
+import webhooks.WebhookEvent;
+import webhooks.WebhookSupport;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static contracts.ContractMatchers.matchesContract;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static pojo.DocumentMatchers.hasPath;
 
 @Listeners({io.qameta.allure.testng.AllureTestNg.class, listeners.TestResultListener.class})
 public class CheckRepoContentTest {
@@ -38,10 +54,9 @@ public class CheckRepoContentTest {
     public void setup() throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         testData = mapper.readValue(new File("src/test/resources/testdata/TestData.json"), RepositoryTestData.class);
-        RestAssured.baseURI = Config.getBaseUri();
-        requestSpec = given()
-                .header("Authorization", "Bearer " + Config.getAuthToken())
-                .header("Accept", "application/vnd.github+json");
+        RestAssuredSupport.install();
+        requestSpec = GitHubSpec.base();
+        WebhookSupport.ensureRepositoryHook(testData.getOwner(), testData.getRepo());
     }
 
     /**
@@ -59,20 +74,25 @@ public class CheckRepoContentTest {
             Response response = given()
                 .spec(requestSpec)
             .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/contents/" + path)
+                .get(GitHubRoute.CONTENTS.expand(testData.getOwner(), testData.getRepo(), path))
             .then()
                 .statusCode(200)
-                .body("name", equalTo(path))
-                .body("type", anyOf(equalTo("file"), equalTo("dir")))
                 .extract().response();
 
+            // one parse serves the contract, the field matchers and the ContentResponse binding below
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.CONTENTS));
+            assertThat(body, hasPath("name", equalTo(path)));
+            assertThat(body, hasPath("type", anyOf(equalTo("file"), equalTo("dir"))));
+
             String msg = "Test passed: testGetRepositoryContent. Fetched content metadata for path: " + path + " in repo: " + testData.getRepo();
             printStatus(msg, true);
             Allure.step(msg);
 
             // Display decoded content of README.md
-            String readmeContentEncoded = response.jsonPath().getString("content");
-            String readmeEncoding = response.jsonPath().getString("encoding");
+            ContentResponse readme = body.as(ContentResponse.class);
+            String readmeContentEncoded = readme.getContent();
+            String readmeEncoding = readme.getEncoding();
             if (readmeContentEncoded != null && "base64".equalsIgnoreCase(readmeEncoding)) {
                 byte[] decodedBytes = java.util.Base64.getDecoder().decode(readmeContentEncoded.replaceAll("\\s", ""));
                 String readmeContentDecoded = new String(decodedBytes);
@@ -110,18 +130,25 @@ public class CheckRepoContentTest {
             requestBody.put("message", commitMessage);
             requestBody.put("content", content);
 
+            CompletableFuture<WebhookEvent> pushed = WebhookSupport.expect("push", event -> {
+                List<String> added = event.json().getList("head_commit.added");
+                return added != null && added.contains(path);
+            });
+
             given()
                 .spec(requestSpec)
                 .header("Content-Type", "application/json")
                 .body(requestBody) // RestAssured will serialize the map to JSON
             .when()
-                .put("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/contents/" + path)
+                .put(GitHubRoute.CONTENTS.expand(testData.getOwner(), testData.getRepo(), path))
             .then()
                 .statusCode(201) // 201 Created, fails if file exists
                 .body("content.name", equalTo(path))
                 .extract().response();
 
-            String msg = "Test passed: testCreateFileContent. File '" + path + "' created successfully in repo: " + testData.getRepo();
+            WebhookEvent event = WebhookSupport.await(pushed, "push adding " + path);
+            String msg = "Test passed: testCreateFileContent. File '" + path + "' created successfully in repo: " + testData.getRepo()
+                + (event != null ? " (confirmed by webhook " + event + ")" : "");
             printStatus(msg, true);
             Allure.step(msg);
         } catch (Exception e) {
@@ -151,12 +178,12 @@ public class CheckRepoContentTest {
             given()
                 .spec(requestSpec)
             .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/contents/" + path)
+                .get(GitHubRoute.CONTENTS.expand(testData.getOwner(), testData.getRepo(), path))
             .then()
                 .statusCode(200)
                 .extract().response();
 
-            String sha = getResponse.jsonPath().getString("sha");
+            String sha = Projection.as(getResponse, ContentResponse.class).getSha();
 
             // Step 2: Prepare delete request body using a Map for better maintainability
             Map<String, Object> requestBody = new HashMap<>();
@@ -169,7 +196,7 @@ public class CheckRepoContentTest {
                 .header("Content-Type", "application/json")
                 .body(requestBody) // RestAssured will serialize the map to JSON
             .when()
-                .delete("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/contents/" + path)
+                .delete(GitHubRoute.CONTENTS.expand(testData.getOwner(), testData.getRepo(), path))
             .then()
                 .statusCode(200);
 
@@ -184,4 +211,67 @@ public class CheckRepoContentTest {
             Assert.fail("Exception in testDeleteFileContent: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test to seed a batch of fixture files as a single commit through the Git Data API and remove them again.
+     * Verifies that each batch lands as exactly one commit on top of the previous head. Runs on a leased
+     * sandbox repository, so no other test moves the branch between the two commits.
+     */
+    @Epic("GitHub Repository API")
+    @Feature("Repository Content")
+    @Story("Bulk Commit Files")
+    @Description("Writes many files in one commit (parallel blobs, one tree, one commit, one ref update) and deletes them in a second commit.")
+    @Test(priority = 4, retryAnalyzer = RetryAnalyzer.class)
+    public void testBulkCommitFiles() {
+        String dir = "bulk-fixtures-" + System.currentTimeMillis();
+        int textFiles = 20;
+        int binaryFiles = 5;
+        try (SandboxPool.Lease sandbox = SandboxPool.shared().acquire()) {
+            GitHubRepositoryClient repoClient = sandbox.client();
+            String branch = Projection.as(repoClient.getRepository(), RepositoryResponse.class).getDefaultBranch();
+
+            GitTreeWriter seed = repoClient.treeWriter(branch);
+            for (int i = 0; i < textFiles; i++) {
+                seed.put(dir + "/fixture-" + i + ".txt", "Fixture " + i + " created by API.");
+            }
+            for (int i = 0; i < binaryFiles; i++) {
+                byte[] bytes = new byte[512];
+                new java.util.Random(i).nextBytes(bytes);
+                seed.put(dir + "/fixture-" + i + ".bin", bytes);
+            }
+            GitTreeWriter.Commit seeded = seed.commit("Seed " + dir + " via Git Data API");
+            Allure.step("Seeded " + (textFiles + binaryFiles) + " files in commit " + seeded);
+
+            GitTreeWriter cleanup = repoClient.treeWriter(branch);
+            for (int i = 0; i < textFiles; i++) {
+                cleanup.delete(dir + "/fixture-" + i + ".txt");
+            }
+            for (int i = 0; i < binaryFiles; i++) {
+                cleanup.delete(dir + "/fixture-" + i + ".bin");
+            }
+            GitTreeWriter.Commit removed = cleanup.commit("Remove " + dir + " via Git Data API");
+            Allure.step("Removed them in commit " + removed);
+
+            Assert.assertEquals(seeded.getBlobs(), binaryFiles, "Only binary files should need a blob upload");
+            Assert.assertEquals(removed.getParentSha(), seeded.getSha(), "Cleanup should be the next commit after the seed");
+            given()
+                .spec(GitHubSpec.base())
+            .when()
+                .get(GitHubRoute.BRANCH.expand(sandbox.getOwner(), sandbox.getName(), branch))
+            .then()
+                .statusCode(200)
+                .body("commit.sha", equalTo(removed.getSha()));
+
+            String msg = "Test passed: testBulkCommitFiles. " + (textFiles + binaryFiles) + " files written and deleted in 2 commits using "
+                + (seeded.getCalls() + removed.getCalls()) + " API calls in sandbox: " + sandbox.getFullName();
+            printStatus(msg, true);
+            Allure.step(msg);
+        } catch (Exception e) {
+            String msg = "Test failed: testBulkCommitFiles";
+            printStatus(msg, false);
+            e.printStackTrace();
+            Allure.step("Exception in testBulkCommitFiles: " + e.getMessage());
+            Assert.fail("Exception in testBulkCommitFiles: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package tests;
 
+import api.GitHubRoute;
+import api.GitHubSpec;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import contracts.ResponseContract;
 import io.qameta.allure.*;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import listeners.RetryAnalyzer;
@@ -13,13 +15,17 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 import pojo.RepositoryTestData;
-import utils.Config;
+import pojo.ResponseDocument;
+import utils.RestAssuredSupport;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
+import static contracts.ContractMatchers.matchesContract;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static pojo.DocumentMatchers.hasPath;
 import static org.hamcrest.Matchers.*;
 
 @Listeners({io.qameta.allure.testng.AllureTestNg.class, listeners.TestResultListener.class})
@@ -38,10 +44,8 @@ public class GetBranchDetailsTest {
     public void setup() throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         testData = mapper.readValue(new File("src/test/resources/testdata/TestData.json"), RepositoryTestData.class);
-        RestAssured.baseURI = Config.getBaseUri();
-        requestSpec = given()
-                .header("Authorization", "Bearer " + Config.getAuthToken())
-                .header("Accept", "application/vnd.github+json");
+        RestAssuredSupport.install();
+        requestSpec = GitHubSpec.base();
     }
 
     /**
@@ -58,13 +62,14 @@ public class GetBranchDetailsTest {
             Response response = given()
                 .spec(requestSpec)
             .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/branches")
+                .get(GitHubRoute.BRANCHES.expand(testData.getOwner(), testData.getRepo()))
             .then()
                 .statusCode(200)
-                .body("name", notNullValue())
                 .extract().response();
 
-            List<String> branchNames = response.jsonPath().getList("name");
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.BRANCH_LIST));
+            List<String> branchNames = body.getList("name");
             String msg;
             if (branchNames == null || branchNames.isEmpty()) {
                 msg = "Test failed: No branches found in the repository.";
@@ -99,12 +104,15 @@ public class GetBranchDetailsTest {
             Response response = given()
                 .spec(requestSpec)
             .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/branches/" + branch)
+                .get(GitHubRoute.BRANCH.expand(testData.getOwner(), testData.getRepo(), branch))
             .then()
                 .statusCode(200)
-                .body("name", equalTo(branch))
                 .extract().response();
 
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.BRANCH));
+            assertThat(body, hasPath("name", equalTo(branch)));
+
             String msg = "Test passed: testGetBranch. Branch details fetched for: " + branch;
             printStatus(msg, true);
             Allure.step(msg);
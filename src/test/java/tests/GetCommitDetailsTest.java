@@ -1,8 +1,14 @@
 package tests;
 
+import api.CompareSummary;
+import api.CompareVisitor;
+import api.GitHubRepositoryClient;
+import api.GitHubRoute;
+import api.GitHubSpec;
+import api.GitObjectClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import contracts.ResponseContract;
 import io.qameta.allure.*;
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import listeners.RetryAnalyzer;
@@ -11,13 +17,17 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 import pojo.RepositoryTestData;
-import utils.Config;
+import pojo.ResponseDocument;
+import utils.RestAssuredSupport;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
+import static contracts.ContractMatchers.matchesContract;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static pojo.DocumentMatchers.hasPath;
 import static org.hamcrest.Matchers.*;
 
 @Listeners({io.qameta.allure.testng.AllureTestNg.class, listeners.TestResultListener.class})
@@ -25,6 +35,8 @@ public class GetCommitDetailsTest {
 
     private RepositoryTestData testData;
     private RequestSpecification requestSpec;
+    private GitHubRepositoryClient repoClient;
+    private String headCommitSha;
 
     // Utility method for colored output: yellow for pass, red for fail
     private void printStatus(String msg, boolean isPass) {
@@ -36,10 +48,9 @@ public class GetCommitDetailsTest {
     public void setup() throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         testData = mapper.readValue(new File("src/test/resources/testdata/TestData.json"), RepositoryTestData.class);
-        RestAssured.baseURI = Config.getBaseUri();
-        requestSpec = given()
-                .header("Authorization", "Bearer " + Config.getAuthToken())
-                .header("Accept", "application/vnd.github+json");
+        RestAssuredSupport.install();
+        requestSpec = GitHubSpec.base();
+        repoClient = GitHubRepositoryClient.forRepository(testData.getOwner(), testData.getRepo());
     }
 
     /**
@@ -57,13 +68,15 @@ public class GetCommitDetailsTest {
             given()
                 .spec(requestSpec)
             .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/commits")
+                .get(GitHubRoute.COMMITS.expand(testData.getOwner(), testData.getRepo()))
             .then()
                 .statusCode(200)
-                .body("sha", notNullValue())
                 .extract().response();
 
-            List<String> commitShas = response.jsonPath().getList("sha");
+            // parsed once; the contract check and the sha list both read the same document
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.COMMIT_LIST));
+            List<String> commitShas = body.getList("sha");
             String msg;
             if (commitShas == null || commitShas.isEmpty()) {
                 msg = "Test failed: No commits found in the repository.";
@@ -100,14 +113,17 @@ public class GetCommitDetailsTest {
             given()
                 .spec(requestSpec)
             .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/commits/" + ref)
+                .get(GitHubRoute.COMMIT.expand(testData.getOwner(), testData.getRepo(), ref))
             .then()
                 .statusCode(200)
-                .body("sha", notNullValue())
-                .body("commit.message", notNullValue())
                 .extract().response();
 
-            String commitSha = response.jsonPath().getString("sha");
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.COMMIT));
+            assertThat(body, hasPath("sha", matchesPattern("[0-9a-f]{40}")));
+            assertThat(body, hasPath("commit.message", notNullValue()));
+            String commitSha = body.getString("sha");
+            headCommitSha = commitSha;
             String msg = "Test passed: testGetCommitByRef. Commit SHA: " + commitSha;
             printStatus(msg, true);
             Allure.step(msg);
@@ -134,20 +150,16 @@ public class GetCommitDetailsTest {
         String head = "develop";  // You can change this to any head branch or commit SHA
         String basehead = base + "..." + head;
         try {
-            Response response = 
-            given()
-                .spec(requestSpec)
-            .when()
-                .get("/repos/" + testData.getOwner() + "/" + testData.getRepo() + "/compare/" + basehead)
-            .then()
-                .statusCode(200)
-                .body("status", notNullValue())
-                .body("commits", notNullValue())
-                .extract().response();
+            // Commits and files are streamed page by page; nothing but the running totals is kept in memory
+            CompareSummary summary = repoClient.compareCommits(base, head, new CompareVisitor() { });
+
+            Assert.assertNotNull(summary.getStatus(), "Compare status missing for " + basehead);
+            Assert.assertEquals(summary.getCommitsSeen(), summary.getTotalCommits(),
+                "Streamed commit count does not match total_commits for " + basehead);
 
-            String status = response.jsonPath().getString("status");
-            int totalCommits = response.jsonPath().getList("commits").size();
-            String msg = String.format("Test passed: testCompareCommits. Status: %s, Total commits compared: %d", status, totalCommits);
+            String status = summary.getStatus();
+            int totalCommits = summary.getCommitsSeen();
+            String msg = String.format("Test passed: testCompareCommits. Status: %s, Total commits compared: %d (%s)", status, totalCommits, summary);
             printStatus(msg, true);
             Allure.step(msg);
         } catch (Exception e) {
@@ -158,4 +170,37 @@ public class GetCommitDetailsTest {
             assert false : "Exception in testCompareCommits: " + e.getMessage();
         }
     }
+
+    /**
+     * Test to read the commit and tree objects of the commit fetched in testGetCommitByRef by SHA.
+     * Objects addressed by SHA never change, so the second read must come from the local object store.
+     */
+    @Epic("GitHub Repository API")
+    @Feature("Repository Commits")
+    @Story("Get Git Objects by SHA")
+    @Description("Reads the commit and tree objects by SHA through the local object store.")
+    @Test(priority = 4, dependsOnMethods = "testGetCommitByRef", retryAnalyzer = RetryAnalyzer.class)
+    public void testGetCommitTreeFromObjectStore() {
+        try {
+            GitObjectClient gitObjects = repoClient.gitObjects();
+            String treeSha = gitObjects.getJson(GitObjectClient.ObjectType.GIT_COMMIT, headCommitSha).getString("tree.sha");
+            List<String> paths = gitObjects.getJson(GitObjectClient.ObjectType.TREE, treeSha).getList("tree.path");
+            Assert.assertFalse(paths == null || paths.isEmpty(), "Tree " + treeSha + " has no entries");
+
+            long hitsBefore = gitObjects.getStore().hits();
+            gitObjects.get(GitObjectClient.ObjectType.TREE, treeSha);
+            Assert.assertEquals(gitObjects.getStore().hits(), hitsBefore + 1, "Tree " + treeSha + " was not served from the object store");
+
+            String msg = "Test passed: testGetCommitTreeFromObjectStore. Tree " + treeSha + " entries: " + paths.size()
+                + ", stored objects: " + gitObjects.getStore().objectCount();
+            printStatus(msg, true);
+            Allure.step(msg);
+        } catch (Exception e) {
+            String msg = "Test failed: testGetCommitTreeFromObjectStore";
+            printStatus(msg, false);
+            e.printStackTrace();
+            Allure.step("Exception in testGetCommitTreeFromObjectStore: " + e.getMessage());
+            assert false : "Exception in testGetCommitTreeFromObjectStore: " + e.getMessage();
+        }
+    }
 }
@@ -1,29 +1,46 @@
 package tests;
 
+import api.EventFeed;
 import api.GitHubRepositoryClient;
+import api.GitHubRoute;
+import api.GitHubSpec;
+import api.GitHubStatsClient;
+import api.SandboxPool;
+import api.StatsReport;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import contracts.ResponseContract;
 import io.qameta.allure.*;
 import io.restassured.RestAssured;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
 import listeners.RetryAnalyzer;
 import io.restassured.response.Response;
+import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 import org.testng.Assert;
-import utils.Config;
 import utils.ConsoleUtils;
+import webhooks.WebhookEvent;
+import webhooks.WebhookSupport;
+import utils.RestAssuredSupport;
 import pojo.RepositoryTestData;
 import pojo.RepositoryResponse;
 import pojo.RepositoryUpdateRequest;
+import pojo.ResponseDocument;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Flow;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import static contracts.ContractMatchers.matchesContract;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
@@ -45,6 +62,14 @@ public class RepositoryApiTest {
         System.out.println(color + msg + "\u001B[0m");
     }
 
+    // Classic tokens list their scopes in X-OAuth-Scopes; fine-grained tokens send none and are tried as they are
+    private static void requireTokenScope(String scope) {
+        String scopes = given().spec(GitHubSpec.base()).when().get(GitHubRoute.USER.expand()).header("X-OAuth-Scopes");
+        if (scopes != null && !Arrays.asList(scopes.trim().split("\\s*,\\s*")).contains(scope)) {
+            throw new SkipException("Token lacks the " + scope + " scope (has: " + scopes + ")");
+        }
+    }
+
     // WE ARE TRYING TO AUTOMATE APIs PRESENT IN https://docs.github.com/en/rest/repos?apiVersion=2022-11-28
 
     @BeforeClass
@@ -52,17 +77,19 @@ public class RepositoryApiTest {
         ObjectMapper mapper = new ObjectMapper();
         testData = mapper.readValue(new File("src/test/resources/testdata/TestData.json"), RepositoryTestData.class);
 
-        RestAssured.baseURI = Config.getBaseUri();
+        RestAssuredSupport.install();
         requestSpec = RestAssured.given()
-            .basePath("/repos/{owner}/{repo}")
+            .spec(GitHubSpec.base())
+            .basePath(GitHubRoute.REPOSITORY.template())
             .pathParam("owner", testData.getOwner())
-            .pathParam("repo", testData.getRepo())
-            .header("Accept", "application/vnd.github+json")
-            .header("Authorization", "Bearer " + Config.getAuthToken());
+            .pathParam("repo", testData.getRepo());
 
         responseSpec200 = RestAssured.expect().statusCode(200);
 
         repoClient = new GitHubRepositoryClient(requestSpec);
+        WebhookSupport.ensureRepositoryHook(testData.getOwner(), testData.getRepo());
+        // start creating sandboxes now so the mutation tests find them ready
+        SandboxPool.shared();
     }
 
     /**
@@ -78,14 +105,18 @@ public class RepositoryApiTest {
         try {
             // --- Serialization would happen here if you were sending a POJO as a request body (not in this GET test) ---
 
-            RepositoryResponse repoResponse = given()
+            Response response = given()
                 .spec(requestSpec)
             .when()
                 .get()
             .then()
                 .log().ifError()
                 .statusCode(200)
-                .extract().as(RepositoryResponse.class); // <-- Deserialization: JSON response to POJO
+                .extract().response();
+            // <-- Deserialization: the body is parsed once, then checked against the contract and bound from the same document
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.REPOSITORY));
+            RepositoryResponse repoResponse = body.as(RepositoryResponse.class);
 
             // Assertions using POJO fields
             assertThat("Repository full_name mismatch",
@@ -113,7 +144,8 @@ public class RepositoryApiTest {
 
     /**
      * Test to update the repository description.
-     * Sends a PATCH request to update the description and verifies the change in the response.
+     * Sends a PATCH request to a leased sandbox repository and verifies the change in the response,
+     * so the shared test repository is never modified.
      */
     @Epic("GitHub Repository API")
     @Feature("Repository Management")
@@ -121,22 +153,35 @@ public class RepositoryApiTest {
     @Description("This test updates the repository description and verifies the change.")
     @Test(priority = 2, retryAnalyzer = RetryAnalyzer.class)
     public void testUpdateRepository() {
-        try {
+        try (SandboxPool.Lease sandbox = SandboxPool.shared().acquire()) {
+            WebhookSupport.ensureRepositoryHook(sandbox.getOwner(), sandbox.getName());
             // --- Serialization: Java POJO to JSON ---
             RepositoryUpdateRequest updateRequest = new RepositoryUpdateRequest(
-                testData.getRepo(),
+                sandbox.getName(),
                 testData.getUpdateDescription()
             );
 
+            // GitHub only sends repository.edited when something actually changed; leases start from the pool's description
+            String fullName = sandbox.getFullName();
+            boolean changesDescription = !testData.getUpdateDescription().equals(SandboxPool.DESCRIPTION);
+            CompletableFuture<WebhookEvent> edited = changesDescription
+                ? WebhookSupport.expect("repository", event -> "edited".equals(event.getAction())
+                    && fullName.equals(event.json().getString("repository.full_name")))
+                : CompletableFuture.completedFuture(null);
+
             // --- Deserialization: JSON response to POJO ---
-            RepositoryResponse repoResponse = given()
-                .spec(requestSpec)
+            Response response = given()
+                .spec(GitHubSpec.base())
                 .body(updateRequest)
             .when()
-                .patch()
+                .patch(GitHubRoute.REPOSITORY.expand(sandbox.getOwner(), sandbox.getName()))
             .then()
                 .statusCode(200)
-                .extract().as(RepositoryResponse.class); // ✅
+                .extract().response();
+            // parsed once for both the contract check and the POJO
+            ResponseDocument body = ResponseDocument.of(response);
+            assertThat(body, matchesContract(ResponseContract.REPOSITORY));
+            RepositoryResponse repoResponse = body.as(RepositoryResponse.class);
 
             // Assertions using POJO fields
             assertThat("Repository description mismatch",
@@ -144,7 +189,8 @@ public class RepositoryApiTest {
                 is(equalTo(testData.getUpdateDescription()))
             );
 
-            String msg = "Test passed: testUpdateRepository";
+            WebhookEvent event = WebhookSupport.await(edited, "repository.edited on " + fullName);
+            String msg = "Test passed: testUpdateRepository on sandbox " + fullName + (event != null ? " (confirmed by webhook " + event + ")" : "");
             printStatus(msg, true);
             Allure.step(msg);
         } catch (Exception e) {
@@ -167,19 +213,47 @@ public class RepositoryApiTest {
     @Test(priority = 3, retryAnalyzer = RetryAnalyzer.class)
     public void testListRepositoryActivities() {
         try {
-            Response response = given()
-                .spec(requestSpec)
-            .when()
-                .get("/events")
-            .then()
-                .statusCode(200)
-                .extract().response();
-            
+            // Poll twice through the incremental feed: the second poll is conditional (If-None-Match),
+            // a 304 unless events arrived in between, and must never hand the same event to subscribers twice
+            List<EventFeed.Event> delivered = new CopyOnWriteArrayList<>();
+            CompletableFuture<Void> completed = new CompletableFuture<>();
+            List<EventFeed.Event> firstPoll;
+            List<EventFeed.Event> secondPoll;
+            try (EventFeed feed = repoClient.eventFeed()) {
+                feed.subscribe(new Flow.Subscriber<EventFeed.Event>() {
+                    public void onSubscribe(Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+                    public void onNext(EventFeed.Event event) { delivered.add(event); }
+                    public void onError(Throwable error) { completed.completeExceptionally(error); }
+                    public void onComplete() { completed.complete(null); }
+                });
+                firstPoll = feed.poll();
+                feed.getLastResponse()
+                .then()
+                    .statusCode(200)
+                    .body(matchesContract(ResponseContract.EVENT_LIST));
+
+                secondPoll = feed.poll();
+                if (secondPoll.isEmpty()) {
+                    assertThat("Unchanged feed was not answered with 304 Not Modified",
+                        feed.getLastResponse().statusCode(), is(304));
+                    assertThat(feed.getNotModified(), is(1L));
+                } else {
+                    assertThat(feed.getLastResponse().statusCode(), is(200));
+                }
+                Allure.step("Event feed: " + feed.getPolls() + " polls, " + feed.getNotModified()
+                    + " not modified, poll interval " + feed.getPollIntervalSeconds() + " s");
+            }
+            completed.get(10, TimeUnit.SECONDS);
+
+            assertThat("Events delivered more than once", delivered.stream().map(EventFeed.Event::getId).distinct().count(),
+                is(equalTo((long) delivered.size())));
+            assertThat(delivered.size(), is(firstPoll.size() + secondPoll.size()));
+
             String msg;
-            if (response.jsonPath().getList("$").isEmpty()) {
+            if (firstPoll.isEmpty()) {
                 msg = "Test passed: testListRepositoryActivities (no activities/events found, empty array is valid)";
             } else {
-                msg = "Test passed: testListRepositoryActivities (activities/events found)";
+                msg = "Test passed: testListRepositoryActivities (" + delivered.size() + " activities/events found)";
             }
             printStatus(msg, true);
             Allure.step(msg);
@@ -193,23 +267,26 @@ public class RepositoryApiTest {
     }
 
     /**
-     * Test to delete the repository.
-     * Sends a DELETE request and expects a 204 status code. Disabled by default for safety.
+     * Test to delete a repository.
+     * Sends a DELETE request for a leased sandbox repository and expects a 204 status code;
+     * the pool replaces the sandbox in the background. Skipped when the token lacks the delete_repo scope.
      */
     @Epic("GitHub Repository API")
     @Feature("Repository Management")
     @Story("Delete Repository")
-    @Description("Deletes the repository. Disabled by default.")
-    @Test(priority = 4, enabled = false, retryAnalyzer = RetryAnalyzer.class)
+    @Description("Deletes a leased sandbox repository.")
+    @Test(priority = 4, retryAnalyzer = RetryAnalyzer.class)
     public void testDeleteRepository() {
-        try {
+        requireTokenScope("delete_repo");
+        try (SandboxPool.Lease sandbox = SandboxPool.shared().acquire()) {
             given()
-                .spec(requestSpec)
+                .spec(GitHubSpec.base())
             .when()
-                .delete()
+                .delete(GitHubRoute.REPOSITORY.expand(sandbox.getOwner(), sandbox.getName()))
             .then()
                 .statusCode(204);
-            String msg = "Test passed: testDeleteRepository";
+            sandbox.markDeleted();
+            String msg = "Test passed: testDeleteRepository. Sandbox: " + sandbox.getFullName();
             printStatus(msg, true);
             Allure.step(msg);
         } catch (Exception e) {
@@ -313,10 +390,9 @@ public class RepositoryApiTest {
         try {
             Response response = 
             given()
-                .baseUri(Config.getBaseUri()) // Use config-driven base URI
-                .header("Authorization", "Bearer " + Config.getAuthToken())
+                .spec(GitHubSpec.base())
             .when()
-                .get("/repositories")
+                .get(GitHubRoute.PUBLIC_REPOSITORIES.template())
             .then()
                 .statusCode(200)
                 .extract().response();
@@ -356,12 +432,11 @@ public class RepositoryApiTest {
             for (int page = 1; page <= 4; page++) {
                 Response response = 
                 given()
-                    .baseUri(Config.getBaseUri()) // Use config-driven base URI
-                    .header("Authorization", "Bearer " + Config.getAuthToken())
+                    .spec(GitHubSpec.base())
                     .queryParam("per_page", perPage)
                     .queryParam("page", page)
                 .when()
-                    .get("/repositories")
+                    .get(GitHubRoute.PUBLIC_REPOSITORIES.template())
                 .then()
                     .statusCode(200)
                     .extract().response();
@@ -400,17 +475,12 @@ public class RepositoryApiTest {
     @Test(priority = 9, retryAnalyzer = RetryAnalyzer.class)
     public void testListAuthenticatedUserRepositories() {
         try {
-            RequestSpecification userRequestSpec = RestAssured.given()
-                .baseUri(Config.getBaseUri())
-                .header("Accept", "application/vnd.github+json")
-                .header("Authorization", "Bearer " + Config.getAuthToken());
-
             Response response = 
             given()
-                .spec(userRequestSpec)
+                .spec(GitHubSpec.base())
                 .log().ifValidationFails() // Log request/response if validation fails
             .when()
-                .get("/user/repos")
+                .get(GitHubRoute.USER_REPOSITORIES.template())
             .then()
                 .statusCode(200)
                 .extract().response();
@@ -445,15 +515,15 @@ public class RepositoryApiTest {
     public void testCreateRepositoryForAuthenticatedUser() {
         createdRepoName = "test-repo-" + System.currentTimeMillis();
         try {
+            // Not confirmed by webhook: repository.created only goes to org- or app-level hooks, and a
+            // repository created under a user account has no hook that would receive it
             String requestBody = "{ \"name\": \"" + createdRepoName + "\", \"description\": \"Repository created via API test\", \"private\": false }";
             given()
-                .baseUri(Config.getBaseUri()) // Use config-driven base URI
-                .header("Authorization", "Bearer " + Config.getAuthToken())
-                .header("Accept", "application/vnd.github+json")
+                .spec(GitHubSpec.base())
                 .header("Content-Type", "application/json")
                 .body(requestBody)
             .when()
-                .post("/user/repos")
+                .post(GitHubRoute.USER_REPOSITORIES.template())
             .then()
                 .statusCode(201)
                 .body("name", equalTo(createdRepoName))
@@ -490,11 +560,9 @@ public class RepositoryApiTest {
             }
             Response response = 
             given()
-                .baseUri(Config.getBaseUri()) // Use config-driven base URI
-                .header("Authorization", "Bearer " + Config.getAuthToken())
-                .header("Accept", "application/vnd.github+json")
+                .spec(GitHubSpec.base())
             .when()
-                .delete("/repos/" + testData.getOwner() + "/" + createdRepoName)
+                .delete(GitHubRoute.REPOSITORY.expand(testData.getOwner(), createdRepoName))
             .then()
                 .statusCode(204)
                 .extract().response();
@@ -510,4 +578,41 @@ public class RepositoryApiTest {
             assert false : "Exception in testDeleteRepositoryForAuthenticatedUser: " + e.getMessage();
         }
     }
+
+    /**
+     * Test to collect the repository's contributor, commit activity and participation statistics.
+     * GitHub answers 202 until it has computed them; the client polls those requests with backoff.
+     */
+    @Epic("GitHub Repository API")
+    @Feature("Repository Statistics")
+    @Story("Collect Repository Statistics")
+    @Description("Collects the statistics endpoints for the repository, waiting out 202 responses.")
+    @Test(priority = 12, retryAnalyzer = RetryAnalyzer.class)
+    public void testCollectRepositoryStats() {
+        try (GitHubStatsClient stats = GitHubStatsClient.create()) {
+            StatsReport report = stats.collect(List.of(testData.getOwner() + "/" + testData.getRepo())).join();
+
+            assertThat("Statistics requests failed: " + report, report.getFailures().isEmpty(), is(true));
+            assertThat("Statistics request count mismatch", report.getRequests(), is(equalTo(GitHubStatsClient.Stat.values().length)));
+            if (report.isComplete()) {
+                // commit_activity's daily counts add up to its weekly totals
+                long byWeekday = 0;
+                for (long commits : report.getCommitsByWeekday()) {
+                    byWeekday += commits;
+                }
+                assertThat("Weekday commits do not add up to weekly commits", byWeekday,
+                    is(equalTo(report.getActivityCommits().total())));
+            }
+
+            String msg = "Test passed: testCollectRepositoryStats. " + report;
+            printStatus(msg, true);
+            Allure.step(msg);
+        } catch (Exception e) {
+            String msg = "Test failed: testCollectRepositoryStats";
+            printStatus(msg, false);
+            e.printStackTrace();
+            Allure.step("Exception in testCollectRepositoryStats: " + e.getMessage());
+            assert false : "Exception in testCollectRepositoryStats: " + e.getMessage();
+        }
+    }
 }
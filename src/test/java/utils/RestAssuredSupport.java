@@ -0,0 +1,37 @@
+package utils;
+
+import faults.FaultProxy;
+import http.CallMetricsFilter;
+import http.CircuitBreakerFilter;
+import http.CompressionTracking;
+import http.ConcurrencyLimitFilter;
+import http.CredentialFilter;
+import http.DeadlineFilter;
+import io.restassured.RestAssured;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * One-time global RestAssured wiring shared by every test class, so ad-hoc given() calls
+ * get the same config and filters as the API clients.
+ */
+public class RestAssuredSupport {
+    private static boolean installed;
+
+    public static synchronized void install() {
+        try {
+            FaultProxy.installIfConfigured();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the fault injection proxy", e);
+        }
+        RestAssured.baseURI = Config.getBaseUri();
+        if (installed) {
+            return;
+        }
+        RestAssured.config = DeadlineFilter.configure(CompressionTracking.configure(RestAssured.config()));
+        // tokens before slots: a call waiting for a benched token must not hold a concurrency slot
+        RestAssured.filters(new DeadlineFilter(), new CircuitBreakerFilter(), new CredentialFilter(), new ConcurrencyLimitFilter(), new CompressionTracking(), new CallMetricsFilter());
+        installed = true;
+    }
+}
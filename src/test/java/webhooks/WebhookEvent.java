@@ -0,0 +1,39 @@
+package webhooks;
+
+import io.restassured.path.json.JsonPath;
+
+/**
+ * One delivered webhook: the X-GitHub-Event type, delivery id and raw JSON payload.
+ */
+public class WebhookEvent {
+    private final String type;
+    private final String deliveryId;
+    private final String payload;
+    private JsonPath json;
+
+    public WebhookEvent(String type, String deliveryId, String payload) {
+        this.type = type;
+        this.deliveryId = deliveryId;
+        this.payload = payload;
+    }
+
+    public String getType() { return type; }
+    public String getDeliveryId() { return deliveryId; }
+    public String getPayload() { return payload; }
+
+    public synchronized JsonPath json() {
+        if (json == null) {
+            json = new JsonPath(payload);
+        }
+        return json;
+    }
+
+    public String getAction() {
+        return json().getString("action");
+    }
+
+    @Override
+    public String toString() {
+        return type + (getAction() != null ? "." + getAction() : "") + " (" + deliveryId + ")";
+    }
+}
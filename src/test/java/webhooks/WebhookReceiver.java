@@ -0,0 +1,303 @@
+package webhooks;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Minimal single-threaded NIO HTTP listener for GitHub-style webhook deliveries (POST with
+ * X-GitHub-Event and a JSON body). Tests register what they expect with {@link #await} before
+ * triggering a change and get a future that completes when the matching delivery arrives, so
+ * they don't have to poll with more GETs.
+ */
+public class WebhookReceiver implements Closeable {
+    private static final int MAX_REQUEST_BYTES = 25 * 1024 * 1024; // GitHub caps payloads at 25 MB
+    private static final int RECENT_EVENTS = 256;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final String secret;
+    private final Thread loop;
+    private final List<Waiter> waiters = new CopyOnWriteArrayList<>();
+    private final Deque<WebhookEvent> recent = new ArrayDeque<>();
+    private volatile boolean running = true;
+
+    private WebhookReceiver(int port, String secret) throws IOException {
+        this.secret = secret;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::run, "webhook-receiver-" + getPort());
+        loop.setDaemon(true);
+    }
+
+    /**
+     * Binds to {@code port} (0 for any free port). When {@code secret} is set, deliveries must carry a
+     * matching X-Hub-Signature-256.
+     */
+    public static WebhookReceiver start(int port, String secret) throws IOException {
+        WebhookReceiver receiver = new WebhookReceiver(port, secret);
+        receiver.loop.start();
+        return receiver;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Completes with the first delivery matching {@code match}, including one that arrived shortly
+     * before this call, or exceptionally with a TimeoutException.
+     */
+    public CompletableFuture<WebhookEvent> await(Predicate<WebhookEvent> match, Duration timeout) {
+        CompletableFuture<WebhookEvent> future = new CompletableFuture<>();
+        Waiter waiter = new Waiter(match, future);
+        synchronized (recent) {
+            for (WebhookEvent event : recent) {
+                if (match.test(event)) {
+                    future.complete(event);
+                    return future;
+                }
+            }
+            waiters.add(waiter);
+        }
+        future.whenComplete((event, error) -> waiters.remove(waiter));
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.close();
+        selector.close();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        SocketChannel client = server.accept();
+                        if (client != null) {
+                            client.configureBlocking(false);
+                            client.register(selector, SelectionKey.OP_READ, new Connection());
+                        }
+                    } else if (key.isReadable()) {
+                        read(key);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Webhook receiver error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        int n;
+        try {
+            n = channel.read(connection.readBuffer);
+        } catch (IOException e) {
+            key.cancel();
+            channel.close();
+            return;
+        }
+        if (n < 0) {
+            key.cancel();
+            channel.close();
+            return;
+        }
+        connection.drain();
+        String status = connection.tryComplete();
+        if (status == null) {
+            return;
+        }
+        if ("204 No Content".equals(status)) {
+            status = handle(connection);
+        }
+        ByteBuffer response = ByteBuffer.wrap(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        // The status line fits in the socket buffer, so this loop does not spin in practice
+        while (response.hasRemaining()) {
+            channel.write(response);
+        }
+        key.cancel();
+        channel.close();
+    }
+
+    private String handle(Connection connection) {
+        byte[] body = connection.body();
+        if (secret != null && !signatureMatches(connection.headers.get("x-hub-signature-256"), body)) {
+            return "401 Unauthorized";
+        }
+        String type = connection.headers.get("x-github-event");
+        if (type == null) {
+            return "400 Bad Request";
+        }
+        dispatch(new WebhookEvent(type, connection.headers.get("x-github-delivery"), new String(body, StandardCharsets.UTF_8)));
+        return "204 No Content";
+    }
+
+    private void dispatch(WebhookEvent event) {
+        synchronized (recent) {
+            recent.addLast(event);
+            if (recent.size() > RECENT_EVENTS) {
+                recent.removeFirst();
+            }
+            for (Waiter waiter : waiters) {
+                try {
+                    if (waiter.match.test(event)) {
+                        waiter.future.complete(event);
+                    }
+                } catch (RuntimeException e) {
+                    waiter.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private boolean signatureMatches(String header, byte[] body) {
+        if (header == null || !header.startsWith("sha256=")) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            StringBuilder expected = new StringBuilder("sha256=");
+            for (byte b : mac.doFinal(body)) {
+                expected.append(String.format("%02x", b));
+            }
+            return MessageDigest.isEqual(expected.toString().getBytes(StandardCharsets.US_ASCII),
+                    header.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static final class Waiter {
+        final Predicate<WebhookEvent> match;
+        final CompletableFuture<WebhookEvent> future;
+
+        Waiter(Predicate<WebhookEvent> match, CompletableFuture<WebhookEvent> future) {
+            this.match = match;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Per-connection request accumulator. Only Content-Length bodies are supported, which is what GitHub sends.
+     */
+    private static final class Connection {
+        final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+        final Map<String, String> headers = new HashMap<>();
+        byte[] data = new byte[8192];
+        int size;
+        int headerEnd = -1;
+        int contentLength = -1;
+
+        void drain() {
+            readBuffer.flip();
+            int n = readBuffer.remaining();
+            if (size + n > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + n));
+            }
+            readBuffer.get(data, size, n);
+            size += n;
+            readBuffer.clear();
+        }
+
+        /**
+         * Null while more bytes are needed, otherwise the response status to send.
+         */
+        String tryComplete() {
+            if (size > MAX_REQUEST_BYTES) {
+                return "413 Payload Too Large";
+            }
+            if (headerEnd < 0) {
+                headerEnd = indexOf(HEADER_END);
+                if (headerEnd < 0) {
+                    return null;
+                }
+                String[] lines = new String(data, 0, headerEnd, StandardCharsets.ISO_8859_1).split("\r\n");
+                if (!lines[0].startsWith("POST ")) {
+                    return "405 Method Not Allowed";
+                }
+                for (int i = 1; i < lines.length; i++) {
+                    int colon = lines[i].indexOf(':');
+                    if (colon > 0) {
+                        headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon + 1).trim());
+                    }
+                }
+                try {
+                    contentLength = Integer.parseInt(headers.getOrDefault("content-length", "-1"));
+                } catch (NumberFormatException e) {
+                    return "400 Bad Request";
+                }
+                if (contentLength < 0) {
+                    return "411 Length Required";
+                }
+            }
+            return size >= headerEnd + HEADER_END.length + contentLength ? "204 No Content" : null;
+        }
+
+        byte[] body() {
+            int start = headerEnd + HEADER_END.length;
+            return Arrays.copyOfRange(data, start, start + contentLength);
+        }
+
+        private int indexOf(byte[] marker) {
+            outer:
+            for (int i = 0; i + marker.length <= size; i++) {
+                for (int j = 0; j < marker.length; j++) {
+                    if (data[i + j] != marker[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package webhooks;
+
+import api.GitHubRoute;
+import api.GitHubSpec;
+import io.restassured.response.Response;
+import utils.Config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Shared {@link WebhookReceiver} for the suite. Enabled by GITHUB_WEBHOOK_URL, the public URL (for
+ * example a tunnel) that forwards to GITHUB_WEBHOOK_PORT on this machine. When it is not set,
+ * {@link #expect} returns an already completed future and tests fall back to their response checks.
+ */
+public final class WebhookSupport {
+    private static WebhookReceiver receiver;
+    private static final Map<String, Long> HOOKS = new HashMap<>();
+
+    private WebhookSupport() {
+    }
+
+    public static boolean isEnabled() {
+        return Config.getWebhookUrl() != null;
+    }
+
+    public static synchronized WebhookReceiver receiver() {
+        if (receiver == null) {
+            try {
+                receiver = WebhookReceiver.start(Config.getWebhookPort(), Config.getWebhookSecret());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot start webhook receiver on port " + Config.getWebhookPort(), e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(WebhookSupport::shutdown));
+        }
+        return receiver;
+    }
+
+    /**
+     * Registers a repository hook for push and repository events pointing at the receiver, once per repo.
+     */
+    public static synchronized void ensureRepositoryHook(String owner, String repo) {
+        if (!isEnabled() || HOOKS.containsKey(owner + "/" + repo)) {
+            return;
+        }
+        receiver();
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("url", Config.getWebhookUrl());
+        config.put("content_type", "json");
+        if (Config.getWebhookSecret() != null) {
+            config.put("secret", Config.getWebhookSecret());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", "web");
+        body.put("active", true);
+        body.put("events", Arrays.asList("push", "repository"));
+        body.put("config", config);
+
+        Response response = given()
+                .spec(GitHubSpec.base())
+                .body(body)
+            .when()
+                .post(GitHubRoute.HOOKS.expand(owner, repo));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Could not register webhook on " + owner + "/" + repo + ": HTTP " + response.statusCode());
+        }
+        HOOKS.put(owner + "/" + repo, response.jsonPath().getLong("id"));
+    }
+
+    /**
+     * Future for the first delivery of {@code type} matching {@code match}. Call before making the change.
+     */
+    public static CompletableFuture<WebhookEvent> expect(String type, Predicate<WebhookEvent> match) {
+        if (!isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return receiver().await(event -> type.equals(event.getType()) && match.test(event),
+                Duration.ofSeconds(Config.getWebhookTimeoutSeconds()));
+    }
+
+    /**
+     * Waits for an expected delivery; null when webhooks are disabled.
+     */
+    public static WebhookEvent await(CompletableFuture<WebhookEvent> expected, String description) throws InterruptedException {
+        try {
+            return expected.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new AssertionError("No webhook received within " + Config.getWebhookTimeoutSeconds() + "s for " + description);
+            }
+            throw new IllegalStateException("Webhook wait failed for " + description, e.getCause());
+        }
+    }
+
+    private static synchronized void shutdown() {
+        HOOKS.forEach((fullName, id) -> {
+            String[] ownerAndRepo = fullName.split("/", 2);
+            given()
+                .spec(GitHubSpec.base())
+            .when()
+                .delete(GitHubRoute.HOOK.expand(ownerAndRepo[0], ownerAndRepo[1], String.valueOf(id)));
+        });
+        HOOKS.clear();
+        try {
+            receiver.close();
+        } catch (IOException e) {
+            System.err.println("Failed to stop webhook receiver: " + e.getMessage());
+        }
+    }
+}